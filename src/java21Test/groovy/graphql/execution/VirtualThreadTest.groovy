@@ -0,0 +1,84 @@
+package graphql.execution
+
+import graphql.async.GraphQL
+import graphql.schema.DataFetcher
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import groovy.transform.CompileStatic
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import static graphql.Scalars.GraphQLBoolean
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+
+/**
+ * Runs on Java 21 and later only, see the java21Test task of the build.
+ */
+class VirtualThreadTest extends Specification {
+
+    @Timeout(10)
+    def 'Fields that block are fetched on virtual threads of their own.'() {
+        given:
+        int fieldCount = 64
+        def together = new CountDownLatch(fieldCount)
+        def threads = new ConcurrentLinkedQueue<String>()
+        def query = GraphQLObjectType.newObject().name("QueryType")
+        (1..fieldCount).each { index ->
+            query.field(newFieldDefinition()
+                    .name("field" + index)
+                    .type(GraphQLBoolean)
+                    .dataFetcher({ env ->
+                        threads.add(currentThreadClass())
+                        // Block until every field is being fetched, which takes a thread per field
+                        together.countDown()
+                        together.await(5, TimeUnit.SECONDS)
+                    } as DataFetcher))
+        }
+        def strategy = AsyncExecutionStrategy.virtualThreadPerField()
+        def graphQL = GraphQL.newAsyncGraphQL(GraphQLSchema.newSchema().query(query).build())
+                .queryExecutionStrategy(strategy)
+                .build()
+
+        when:
+        def result = graphQL.execute("{ " + (1..fieldCount).collect { "field" + it }.join(" ") + " }")
+
+        then:
+        result.errors.empty
+        result.data.values().every { it == true }
+        threads.size() == fieldCount
+        threads as Set == ['java.lang.VirtualThread'] as Set
+
+        cleanup:
+        strategy.shutdown()
+    }
+
+    def 'The strategy shuts down the executor of its virtual threads, but not that of completion.'() {
+        given:
+        def completionExecutorService = Executors.newSingleThreadExecutor()
+        def strategy = AsyncExecutionStrategy.virtualThreadPerField(completionExecutorService)
+
+        when:
+        strategy.shutdown()
+
+        then:
+        strategy.executorService.isShutdown()
+        !completionExecutorService.isShutdown()
+
+        cleanup:
+        completionExecutorService.shutdownNow()
+    }
+
+    /*
+     * The metaclass of Thread can't be built on Java 21 by the Groovy that the build runs on, and
+     * Thread.isVirtual() can't be compiled on Java 8, so the class of the thread tells instead
+     */
+    @CompileStatic
+    static String currentThreadClass() {
+        Thread.currentThread().getClass().name
+    }
+}
@@ -0,0 +1,191 @@
+package graphql.execution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+
+import static graphql.Scalars.GraphQLInt;
+import static graphql.Scalars.GraphQLString;
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition;
+
+/**
+ * Generated schemas of the shapes that the benchmarks run against, each with the one query that
+ * exercises it.
+ */
+public final class BenchmarkSchemas {
+
+  static final int WIDTH = 200;
+  static final int DEPTH = 25;
+  static final int LIST_SIZE = 10_000;
+  static final int MIXED_WIDTH = 20;
+  static final long LATENCY_MICROS = 500;
+
+  private static final ScheduledExecutorService latency =
+    Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "benchmark-latency");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+  public enum Shape {
+    /**
+     * Hundreds of sibling fields with cheap data fetchers.
+     */
+    WIDE,
+    /**
+     * One object nested within another, a few dozen levels deep.
+     */
+    DEEP,
+    /**
+     * A list of ten thousand objects.
+     */
+    LIST,
+    /**
+     * Fields whose data fetchers alternate between returning at once, and after some latency.
+     */
+    MIXED
+  }
+
+  private final GraphQLSchema schema;
+  private final String query;
+
+  private BenchmarkSchemas(GraphQLSchema schema, String query) {
+    this.schema = schema;
+    this.query = query;
+  }
+
+  GraphQLSchema getSchema() {
+    return schema;
+  }
+
+  String getQuery() {
+    return query;
+  }
+
+  /**
+   * @param shape    the shape of the schema
+   * @param blocking whether data fetchers with latency block until they are done, rather than
+   *                 return a future, for strategies that do not complete futures
+   */
+  static BenchmarkSchemas of(Shape shape, boolean blocking) {
+    switch (shape) {
+      case WIDE:
+        return wide();
+      case DEEP:
+        return deep();
+      case LIST:
+        return list();
+      default:
+        return mixed(blocking);
+    }
+  }
+
+  private static BenchmarkSchemas wide() {
+    GraphQLObjectType.Builder queryType = GraphQLObjectType.newObject().name("Query");
+    StringBuilder query = new StringBuilder("{");
+    for (int i = 0; i < WIDTH; i++) {
+      String value = "value" + i;
+      queryType.field(newFieldDefinition()
+                        .name("field" + i)
+                        .type(GraphQLString)
+                        .dataFetcher(environment -> value));
+      query.append(" field").append(i);
+    }
+    return new BenchmarkSchemas(GraphQLSchema.newSchema().query(queryType.build()).build(),
+                                query.append(" }").toString());
+  }
+
+  private static BenchmarkSchemas deep() {
+    GraphQLObjectType levelType = null;
+    for (int level = DEPTH; level >= 0; level--) {
+      GraphQLObjectType.Builder builder = GraphQLObjectType.newObject()
+        .name(level == 0 ? "Query" : "Level" + level)
+        .field(newFieldDefinition()
+                 .name("value")
+                 .type(GraphQLInt)
+                 .dataFetcher(environment -> DEPTH));
+      if (levelType != null) {
+        builder.field(newFieldDefinition()
+                        .name("next")
+                        .type(levelType)
+                        .dataFetcher(environment -> Collections.emptyMap()));
+      }
+      levelType = builder.build();
+    }
+    StringBuilder query = new StringBuilder();
+    for (int level = 0; level < DEPTH; level++) {
+      query.append("{ value next ");
+    }
+    query.append("{ value }");
+    for (int level = 0; level < DEPTH; level++) {
+      query.append(" }");
+    }
+    return new BenchmarkSchemas(GraphQLSchema.newSchema().query(levelType).build(),
+                                query.toString());
+  }
+
+  private static BenchmarkSchemas list() {
+    GraphQLObjectType itemType = GraphQLObjectType.newObject()
+      .name("Item")
+      .field(newFieldDefinition()
+               .name("id")
+               .type(GraphQLInt)
+               .dataFetcher(environment -> environment.getSource()))
+      .field(newFieldDefinition()
+               .name("name")
+               .type(GraphQLString)
+               .dataFetcher(environment -> "item" + environment.getSource()))
+      .build();
+    List<Integer> items = new ArrayList<>(LIST_SIZE);
+    for (int i = 0; i < LIST_SIZE; i++) {
+      items.add(i);
+    }
+    GraphQLObjectType queryType = GraphQLObjectType.newObject()
+      .name("Query")
+      .field(newFieldDefinition()
+               .name("items")
+               .type(new GraphQLList(itemType))
+               .dataFetcher(environment -> items))
+      .build();
+    return new BenchmarkSchemas(GraphQLSchema.newSchema().query(queryType).build(),
+                                "{ items { id name } }");
+  }
+
+  private static BenchmarkSchemas mixed(boolean blocking) {
+    GraphQLObjectType.Builder queryType = GraphQLObjectType.newObject().name("Query");
+    StringBuilder query = new StringBuilder("{");
+    for (int i = 0; i < MIXED_WIDTH; i++) {
+      String value = "value" + i;
+      DataFetcher dataFetcher;
+      if (i % 2 == 0) {
+        dataFetcher = environment -> value;
+      } else if (blocking) {
+        dataFetcher = environment -> delayed(value).join();
+      } else {
+        dataFetcher = environment -> delayed(value);
+      }
+      queryType.field(newFieldDefinition()
+                        .name("field" + i)
+                        .type(GraphQLString)
+                        .dataFetcher(dataFetcher));
+      query.append(" field").append(i);
+    }
+    return new BenchmarkSchemas(GraphQLSchema.newSchema().query(queryType.build()).build(),
+                                query.append(" }").toString());
+  }
+
+  private static CompletableFuture<Object> delayed(Object value) {
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    latency.schedule(() -> future.complete(value), LATENCY_MICROS, TimeUnit.MICROSECONDS);
+    return future;
+  }
+}
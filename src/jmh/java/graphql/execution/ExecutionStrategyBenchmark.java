@@ -0,0 +1,115 @@
+package graphql.execution;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@link AsyncExecutionStrategy}, both parallel and serial, with the {@link
+ * ExecutorServiceExecutionStrategy} of graphql-java, on pools of several sizes, and with its {@link
+ * SimpleExecutionStrategy}, which runs on the calling thread alone.
+ *
+ * Run with {@code ./gradlew jmh}, which reports throughput, percentiles of the time per request,
+ * and, through the GC profiler, the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionStrategyBenchmark {
+
+  public enum Strategy {
+    ASYNC_PARALLEL,
+    ASYNC_SERIAL,
+    EXECUTOR_SERVICE,
+    SIMPLE
+  }
+
+  @Param({"WIDE", "DEEP", "LIST", "MIXED"})
+  public BenchmarkSchemas.Shape shape;
+
+  @Param({"ASYNC_PARALLEL", "ASYNC_SERIAL", "EXECUTOR_SERVICE", "SIMPLE"})
+  public Strategy strategy;
+
+  /**
+   * The size of the pool that fields are resolved on, which the simple strategy ignores.
+   */
+  @Param({"1", "4", "16"})
+  public int poolSize;
+
+  private ExecutorService pool;
+  private Supplier<ExecutionResult> execution;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    if (strategy == Strategy.EXECUTOR_SERVICE) {
+      // Its fields block their thread until their sub-selections are done, which would starve a
+      // bounded pool, so those that find every thread busy run on the thread that submits them
+      pool = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                                    new SynchronousQueue<>(),
+                                    new ThreadPoolExecutor.CallerRunsPolicy());
+    } else {
+      pool = Executors.newFixedThreadPool(poolSize);
+    }
+    switch (strategy) {
+      case ASYNC_PARALLEL:
+      case ASYNC_SERIAL: {
+        BenchmarkSchemas schemas = BenchmarkSchemas.of(shape, false);
+        graphql.async.GraphQL graphQL = graphql.async.GraphQL.newAsyncGraphQL(schemas.getSchema())
+          .queryExecutionStrategy(strategy == Strategy.ASYNC_PARALLEL ?
+                                  AsyncExecutionStrategy.parallel(pool) :
+                                  AsyncExecutionStrategy.serial(pool))
+          .build();
+        String query = schemas.getQuery();
+        execution = () -> graphQL.executeAsync(query, null, null, Collections.emptyMap()).join();
+        break;
+      }
+      default: {
+        BenchmarkSchemas schemas = BenchmarkSchemas.of(shape, true);
+        ExecutionStrategy executionStrategy = strategy == Strategy.SIMPLE ?
+                                              new SimpleExecutionStrategy() :
+                                              new ExecutorServiceExecutionStrategy(pool);
+        GraphQL graphQL = new GraphQL(schemas.getSchema(), executionStrategy);
+        String query = schemas.getQuery();
+        execution = () -> graphQL.execute(query);
+      }
+    }
+    ExecutionResult result = execution.get();
+    if (!result.getErrors().isEmpty()) {
+      throw new IllegalStateException("The benchmark query failed: " + result.getErrors());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Benchmark
+  public ExecutionResult execute() {
+    return execution.get();
+  }
+}
@@ -0,0 +1,187 @@
+package graphql.async;
+
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+
+/**
+ * A limit on the number of requests that a {@link GraphQL} object executes at once, along with a
+ * bounded queue of requests that wait for their turn. Requests that find both full are shed, that
+ * is to say, they complete right away with a {@link LoadSheddingError}, rather than piling up
+ * futures until the heap runs out.
+ *
+ * A queued request is started on the thread that completes the request before it. Requests that
+ * complete as soon as they are started do not start the next one in turn, but leave it to the
+ * thread that is already draining the queue, so that a long queue does not overflow its stack.
+ */
+public class AdmissionControl {
+
+  private final int maxInFlight;
+  private final int maxQueued;
+  private final Queue<QueuedExecution> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger inFlightCount = new AtomicInteger();
+  private final AtomicInteger queueDepth = new AtomicInteger();
+  private final AtomicInteger drainCount = new AtomicInteger();
+  private final LongAdder shedCount = new LongAdder();
+
+  private static class QueuedExecution {
+
+    private final Supplier<CompletableFuture<ExecutionResult>> execution;
+    private final CompletableFuture<ExecutionResult> result = new CompletableFuture<>();
+
+    private QueuedExecution(Supplier<CompletableFuture<ExecutionResult>> execution) {
+      this.execution = execution;
+    }
+  }
+
+  private AdmissionControl(int maxInFlight, int maxQueued) {
+    this.maxInFlight = maxInFlight;
+    this.maxQueued = maxQueued;
+  }
+
+  /**
+   * Helps you build an admission control
+   *
+   * @return a builder of admission controls
+   */
+  public static Builder newAdmissionControl() {
+    return new Builder();
+  }
+
+  public static class Builder {
+
+    private int maxInFlight = 256;
+    private int maxQueued = 256;
+
+    public Builder maxInFlight(int maxInFlight) {
+      assert maxInFlight > 0 : "Maximum in flight must be positive";
+      this.maxInFlight = maxInFlight;
+      return this;
+    }
+
+    public Builder maxQueued(int maxQueued) {
+      assert maxQueued >= 0 : "Maximum queued must not be negative";
+      this.maxQueued = maxQueued;
+      return this;
+    }
+
+    public AdmissionControl build() {
+      return new AdmissionControl(maxInFlight, maxQueued);
+    }
+  }
+
+  /**
+   * Start the given execution, if there is room for it, queue it, if there is room in the queue,
+   * or else shed it.
+   *
+   * @param execution starts the execution of a request
+   * @return a completable future of the execution result, or of a {@link LoadSheddingError}
+   */
+  CompletableFuture<ExecutionResult> admit(Supplier<CompletableFuture<ExecutionResult>> execution) {
+    if (tryAcquire()) {
+      return start(execution);
+    }
+    if (queueDepth.incrementAndGet() <= maxQueued) {
+      QueuedExecution queuedExecution = new QueuedExecution(execution);
+      queue.add(queuedExecution);
+      // The requests that were in flight may have completed in the meantime
+      drain();
+      return queuedExecution.result;
+    }
+    queueDepth.decrementAndGet();
+    shedCount.increment();
+    return CompletableFuture.completedFuture(
+      new ExecutionResultImpl(Collections.singletonList(new LoadSheddingError())));
+  }
+
+  private boolean tryAcquire() {
+    int inFlight;
+    do {
+      inFlight = inFlightCount.get();
+      if (inFlight >= maxInFlight) {
+        return false;
+      }
+    } while (!inFlightCount.compareAndSet(inFlight, inFlight + 1));
+    return true;
+  }
+
+  private CompletableFuture<ExecutionResult> start(
+    Supplier<CompletableFuture<ExecutionResult>> execution) {
+    CompletableFuture<ExecutionResult> result;
+    try {
+      result = execution.get();
+    } catch (RuntimeException e) {
+      result = new CompletableFuture<>();
+      result.completeExceptionally(e);
+    }
+    result.whenComplete((executionResult, throwable) -> {
+      inFlightCount.decrementAndGet();
+      drain();
+    });
+    return result;
+  }
+
+  /**
+   * Start queued requests, for as long as there is room for them. Only one thread drains the queue
+   * at a time: a call that finds another under way, be it on another thread or further up the
+   * stack of its own, has that one go round once more, rather than draining the queue itself.
+   */
+  private void drain() {
+    if (drainCount.getAndIncrement() != 0) {
+      return;
+    }
+    do {
+      while (!queue.isEmpty() && tryAcquire()) {
+        QueuedExecution queuedExecution = queue.poll();
+        if (queuedExecution == null) {
+          inFlightCount.decrementAndGet();
+          break;
+        }
+        queueDepth.decrementAndGet();
+        start(queuedExecution.execution).whenComplete((executionResult, throwable) -> {
+          if (throwable != null) {
+            queuedExecution.result.completeExceptionally(throwable);
+          } else {
+            queuedExecution.result.complete(executionResult);
+          }
+        });
+      }
+    } while (drainCount.decrementAndGet() != 0);
+  }
+
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  public int getMaxQueued() {
+    return maxQueued;
+  }
+
+  /**
+   * @return the number of requests that are being executed right now
+   */
+  public int getInFlightCount() {
+    return inFlightCount.get();
+  }
+
+  /**
+   * @return the number of requests that wait for their turn right now
+   */
+  public int getQueueDepth() {
+    return queueDepth.get();
+  }
+
+  /**
+   * @return the number of requests that were shed, so far
+   */
+  public long getShedCount() {
+    return shedCount.sum();
+  }
+}
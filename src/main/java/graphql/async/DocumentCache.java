@@ -0,0 +1,234 @@
+package graphql.async;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import graphql.GraphQLException;
+import graphql.execution.ExecutionPlan;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * A bounded cache of parsed and validated {@link graphql.language.Document}s, which lets the {@link
+ * GraphQL} skip the parsing and validation of requests that it has seen before. The documents are
+ * cached in the form of their {@link ExecutionPlan}, which is compiled as they are executed.
+ *
+ * Documents are keyed by the request string, or by whatever the {@link Builder#keyFunction(Function)
+ * key function} makes of it. With a key function that hashes the request string, such as {@link
+ * #sha256(String)}, a document can also be looked up by the hash alone, as clients of persisted
+ * queries send it, see {@link #getByKey(String)} and {@link GraphQL#executePersisted(String, String,
+ * String, Object, Map)}.
+ *
+ * The documents are held in a {@link ConcurrentHashMap}, so that lookups take no lock. The order of
+ * eviction is kept in a queue of its own, which only additions lock. Least recently used eviction
+ * is approximated, in the manner of a clock: a lookup merely marks the document as used, and a
+ * document that is up for eviction, but was used since it was queued, is queued again instead.
+ */
+public class DocumentCache {
+
+  /**
+   * The order in which documents are evicted, once the cache is full.
+   */
+  public enum Eviction {
+    /**
+     * Evict a document that was used least recently, or nearly so.
+     */
+    LRU,
+    /**
+     * Evict the document that was added first.
+     */
+    FIFO
+  }
+
+  private static class Entry {
+
+    private final String key;
+    private final ExecutionPlan executionPlan;
+    private volatile boolean used;
+
+    private Entry(String key, ExecutionPlan executionPlan) {
+      this.key = key;
+      this.executionPlan = executionPlan;
+    }
+  }
+
+  private final int maximumSize;
+  private final boolean lru;
+  private final Function<String, String> keyFunction;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Queue<Entry> evictionQueue = new ArrayDeque<>();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  private DocumentCache(int maximumSize, Eviction eviction, Function<String, String> keyFunction) {
+    this.maximumSize = maximumSize;
+    this.lru = eviction == Eviction.LRU;
+    this.keyFunction = keyFunction;
+  }
+
+  /**
+   * Helps you build a document cache
+   *
+   * @return a builder of document caches
+   */
+  public static Builder newDocumentCache() {
+    return new Builder();
+  }
+
+  public static class Builder {
+
+    private int maximumSize = 1000;
+    private Eviction eviction = Eviction.LRU;
+    private Function<String, String> keyFunction = Function.identity();
+
+    public Builder maximumSize(int maximumSize) {
+      assert maximumSize > 0 : "Maximum size must be positive";
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    public Builder eviction(Eviction eviction) {
+      assertNotNull(eviction, "Eviction must be non null");
+      this.eviction = eviction;
+      return this;
+    }
+
+    /**
+     * @param keyFunction the function that maps a request string to its key in the cache, such as
+     *                    {@link DocumentCache#sha256(String)}
+     * @return this builder
+     */
+    public Builder keyFunction(Function<String, String> keyFunction) {
+      assertNotNull(keyFunction, "Key function must be non null");
+      this.keyFunction = keyFunction;
+      return this;
+    }
+
+    public DocumentCache build() {
+      return new DocumentCache(maximumSize, eviction, keyFunction);
+    }
+  }
+
+  /**
+   * @param requestString the request string
+   * @return the plan of the cached document of the request string, or null if there is none
+   */
+  public ExecutionPlan get(String requestString) {
+    return getByKey(key(requestString));
+  }
+
+  /**
+   * @param key the key of a request string, such as the hash that a client of persisted queries
+   *            sends in place of the request string
+   * @return the plan of the cached document of the key, or null if there is none
+   */
+  public ExecutionPlan getByKey(String key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      missCount.increment();
+      return null;
+    }
+    // Spare the write, if the entry is marked already
+    if (lru && !entry.used) {
+      entry.used = true;
+    }
+    hitCount.increment();
+    return entry.executionPlan;
+  }
+
+  /**
+   * @param requestString the request string
+   * @return the key of the request string in the cache
+   */
+  public String key(String requestString) {
+    return keyFunction.apply(requestString);
+  }
+
+  /**
+   * Cache the document of a request string, which must have been validated, evicting another
+   * document if the cache is full.
+   *
+   * @param requestString the request string
+   * @param executionPlan the plan of the parsed and validated document of the request string
+   */
+  public void put(String requestString, ExecutionPlan executionPlan) {
+    Entry entry = new Entry(key(requestString), executionPlan);
+    synchronized (this) {
+      if (entries.putIfAbsent(entry.key, entry) != null) {
+        return;
+      }
+      evictionQueue.add(entry);
+      while (entries.size() > maximumSize) {
+        evict();
+      }
+    }
+  }
+
+  /**
+   * Evict the document at the head of the queue, unless it was used since it was queued, in which
+   * case it's queued again, and the next one is up.
+   */
+  private void evict() {
+    Entry entry;
+    while ((entry = evictionQueue.remove()).used) {
+      entry.used = false;
+      evictionQueue.add(entry);
+    }
+    entries.remove(entry.key);
+    evictionCount.increment();
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    evictionQueue.clear();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  /**
+   * A key function that hashes the request string, which keeps long request strings out of the
+   * cache, and lets clients of persisted queries send the hash in place of the request string.
+   *
+   * @param requestString the request string
+   * @return the hex encoded SHA-256 hash of the request string
+   */
+  public static String sha256(String requestString) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256")
+        .digest(requestString.getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder(hash.length * 2);
+      for (byte b : hash) {
+        hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new GraphQLException(e);
+    }
+  }
+}
@@ -1,17 +1,25 @@
 package graphql.async;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import graphql.ExceptionWhileDataFetching;
 import graphql.ExecutionResult;
 import graphql.ExecutionResultImpl;
+import graphql.GraphQLError;
 
 public class ExecutionFuture {
 
@@ -19,51 +27,46 @@ public class ExecutionFuture {
     return completable(executionResult).join();
   }
 
+  /**
+   * Resolve every {@link CompletableFuture} in the data of the given execution result, no matter how
+   * deep in its maps and lists it is, and complete on the common fork join pool.
+   *
+   * @param executionResult the execution result whose data may contain completable futures
+   * @return a completable future of the execution result, whose data is free of futures
+   */
   public static CompletableFuture<ExecutionResult> completable(ExecutionResult executionResult) {
-    return completable(executionResult, ForkJoinPool.commonPool());
+    return completable(executionResult, (Executor) ForkJoinPool.commonPool());
   }
 
-  @SuppressWarnings("unchecked")
+  /**
+   * Resolve every {@link CompletableFuture} in the data of the given execution result, no matter how
+   * deep in its maps and lists it is, and complete on the given executor service.
+   *
+   * @param executionResult the execution result whose data may contain completable futures
+   * @param executorService the executor service to complete on, or null to complete on the thread
+   *                        that resolves the last future
+   * @return a completable future of the execution result, whose data is free of futures
+   */
   public static CompletableFuture<ExecutionResult> completable(ExecutionResult executionResult,
                                                                ExecutorService executorService) {
-    Object executionData = executionResult != null ? executionResult.getData() : null;
-    if (executionData instanceof CompletableFuture) {
-      return ((CompletableFuture) executionData)
-        .exceptionally(throwable -> {
-          ((ExecutionResultImpl) executionResult).addErrors(Arrays.asList(
-            new ExceptionWhileDataFetching((Throwable) throwable)
-          ));
-          return executionResult;
-        })
-        .thenApplyAsync(
-          completedData -> {
-            ((ExecutionResultImpl) executionResult).setData(completedData);
-            return executionResult;
-          }, executorService);
-    } else if (executionData instanceof Map) {
-      final Map<String, Object> results = (Map<String, Object>) executionData;
-      List<CompletableFuture<Object>> completables = new ArrayList<>();
-      for (final String fieldName : results.keySet()) {
-        Object fieldValue = results.get(fieldName);
-        if (fieldValue instanceof CompletableFuture) {
-          completables.add(
-            ((CompletableFuture) fieldValue)
-              .thenAccept(fieldValueDone -> results.put(fieldName, fieldValueDone)));
-        }
-      }
-      if (!completables.isEmpty()) {
-        return CompletableFuture.allOf(array(completables))
-          .exceptionally(throwable -> {
-            ((ExecutionResultImpl) executionResult).addErrors(Arrays.asList(
-              new ExceptionWhileDataFetching(throwable)
-            ));
-            return null;
-          })
-          .thenApply(
-            completablesDone -> executionResult);
-      }
+    return completable(executionResult, (Executor) executorService);
+  }
+
+  /**
+   * Resolve every {@link CompletableFuture} in the data of the given execution result, no matter how
+   * deep in its maps and lists it is, and complete on the given executor.
+   *
+   * @param executionResult the execution result whose data may contain completable futures
+   * @param executor        the executor to complete on, or null to complete on the thread that
+   *                        resolves the last future
+   * @return a completable future of the execution result, whose data is free of futures
+   */
+  public static CompletableFuture<ExecutionResult> completable(ExecutionResult executionResult,
+                                                               Executor executor) {
+    if (executionResult == null) {
+      return CompletableFuture.completedFuture(null);
     }
-    return CompletableFuture.completedFuture(executionResult);
+    return new Resolution(executionResult, executor).resolve();
   }
 
   public static CompletableFuture[] array(
@@ -71,4 +74,134 @@ public class ExecutionFuture {
     return completableFutures.toArray(new CompletableFuture[]{});
   }
 
+  /**
+   * The resolution of the futures in the data of an execution result. The tree of data is walked
+   * iteratively, and each pending future is counted, rather than being gathered into an {@code
+   * allOf} per level. When a future is done, its value is written into its own map entry or list
+   * position, which does not modify the structure of the map or list, and so is safe to do while
+   * other futures complete.
+   */
+  private static class Resolution {
+
+    private static final Object PENDING = new Object();
+
+    private final ExecutionResult executionResult;
+    private final Executor executor;
+    private final CompletableFuture<ExecutionResult> resolved = new CompletableFuture<>();
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final Queue<GraphQLError> errors = new ConcurrentLinkedQueue<>();
+    private volatile Object data;
+
+    private Resolution(ExecutionResult executionResult, Executor executor) {
+      this.executionResult = executionResult;
+      this.executor = executor;
+    }
+
+    private CompletableFuture<ExecutionResult> resolve() {
+      resolveValue(executionResult.getData(), resolvedData -> data = resolvedData);
+      done();
+      return resolved;
+    }
+
+    /**
+     * Set the given value, once it's resolved, and then walk it, along with whatever it contains.
+     */
+    @SuppressWarnings("unchecked")
+    private void resolveValue(Object value, Consumer<Object> setter) {
+      Object resolvedValue = await(value, setter);
+      if (resolvedValue == PENDING) {
+        return;
+      }
+      setter.accept(resolvedValue);
+      Deque<Object> containers = new ArrayDeque<>();
+      push(containers, resolvedValue);
+      while (!containers.isEmpty()) {
+        Object container = containers.pop();
+        if (container instanceof Map) {
+          for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) container).entrySet()) {
+            Object entryValue = entry.getValue();
+            Object resolvedEntryValue = await(entryValue, entry::setValue);
+            if (resolvedEntryValue != PENDING) {
+              if (resolvedEntryValue != entryValue) {
+                entry.setValue(resolvedEntryValue);
+              }
+              push(containers, resolvedEntryValue);
+            }
+          }
+        } else {
+          List<Object> list = (List<Object>) container;
+          for (int index = 0; index < list.size(); index++) {
+            final int position = index;
+            Object item = list.get(index);
+            Object resolvedItem = await(item, completedItem -> list.set(position, completedItem));
+            if (resolvedItem != PENDING) {
+              if (resolvedItem != item) {
+                list.set(index, resolvedItem);
+              }
+              push(containers, resolvedItem);
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * @return the value itself, or the value of a future that is already done, which is null if it
+     * failed, or {@link #PENDING} if the future is not done yet, in which case its value is resolved
+     * through the setter later on.
+     */
+    @SuppressWarnings("unchecked")
+    private Object await(Object value, Consumer<Object> setter) {
+      while (value instanceof CompletableFuture) {
+        CompletableFuture<Object> future = (CompletableFuture<Object>) value;
+        if (!future.isDone()) {
+          pending.incrementAndGet();
+          future.whenComplete((resolvedValue, throwable) -> {
+            if (throwable != null) {
+              fail(throwable);
+              setter.accept(null);
+            } else {
+              resolveValue(resolvedValue, setter);
+            }
+            done();
+          });
+          return PENDING;
+        }
+        if (future.isCompletedExceptionally()) {
+          future.whenComplete((resolvedValue, throwable) -> fail(throwable));
+          return null;
+        }
+        value = future.getNow(null);
+      }
+      return value;
+    }
+
+    private static void push(Deque<Object> containers, Object value) {
+      if (value instanceof Map || value instanceof List) {
+        containers.push(value);
+      }
+    }
+
+    private void fail(Throwable throwable) {
+      if (throwable instanceof CompletionException && throwable.getCause() != null) {
+        throwable = throwable.getCause();
+      }
+      errors.add(new ExceptionWhileDataFetching(throwable));
+    }
+
+    private void done() {
+      if (pending.decrementAndGet() == 0) {
+        ExecutionResultImpl completedResult =
+          new ExecutionResultImpl(data, executionResult.getErrors());
+        if (!errors.isEmpty()) {
+          completedResult.addErrors(new ArrayList<>(errors));
+        }
+        if (executor != null) {
+          executor.execute(() -> resolved.complete(completedResult));
+        } else {
+          resolved.complete(completedResult);
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,90 @@
+package graphql.async;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * A single request of a batch that is executed by {@link GraphQL#executeBatch(java.util.List)}.
+ */
+public class ExecutionInput {
+
+  private final String requestString;
+  private final String operationName;
+  private final Object context;
+  private final Map<String, Object> arguments;
+
+  private ExecutionInput(String requestString, String operationName, Object context,
+                         Map<String, Object> arguments) {
+    this.requestString = requestString;
+    this.operationName = operationName;
+    this.context = context;
+    this.arguments = arguments;
+  }
+
+  /**
+   * Helps you build an execution input
+   *
+   * @return a builder of execution inputs
+   */
+  public static Builder newExecutionInput() {
+    return new Builder();
+  }
+
+  public String getRequestString() {
+    return requestString;
+  }
+
+  public String getOperationName() {
+    return operationName;
+  }
+
+  public Object getContext() {
+    return context;
+  }
+
+  public Map<String, Object> getArguments() {
+    return arguments;
+  }
+
+  @Override
+  public String toString() {
+    return "ExecutionInput{requestString='" + requestString + "', operationName='" +
+           operationName + "', arguments=" + arguments + '}';
+  }
+
+  public static class Builder {
+
+    private String requestString;
+    private String operationName;
+    private Object context;
+    private Map<String, Object> arguments = Collections.emptyMap();
+
+    public Builder requestString(String requestString) {
+      this.requestString = requestString;
+      return this;
+    }
+
+    public Builder operationName(String operationName) {
+      this.operationName = operationName;
+      return this;
+    }
+
+    public Builder context(Object context) {
+      this.context = context;
+      return this;
+    }
+
+    public Builder arguments(Map<String, Object> arguments) {
+      assertNotNull(arguments, "arguments can't be null");
+      this.arguments = arguments;
+      return this;
+    }
+
+    public ExecutionInput build() {
+      assertNotNull(requestString, "requestString can't be null");
+      return new ExecutionInput(requestString, operationName, context, arguments);
+    }
+  }
+}
@@ -1,18 +1,43 @@
 package graphql.async;
 
 
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.execution.AsyncExecution;
 import graphql.execution.AsyncExecutionStrategy;
+import graphql.execution.BatchLoader;
+import graphql.execution.Bulkhead;
+import graphql.execution.BulkheadRegistry;
+import graphql.execution.Cancellation;
+import graphql.execution.DataLoaderRegistry;
+import graphql.execution.ExecutionInstrumentation;
+import graphql.execution.ExecutionPlan;
 import graphql.execution.ExecutionStrategy;
+import graphql.execution.OperationListener;
+import graphql.language.Document;
+import graphql.parser.Parser;
 import graphql.schema.GraphQLSchema;
+import graphql.validation.ValidationError;
+import graphql.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static graphql.Assert.assertNotNull;
 import static graphql.async.ExecutionFuture.completable;
-import static graphql.async.ExecutionFuture.complete;
 
 /**
  * An asynchronous flavor of {@link graphql.GraphQL}, which allows you to register a
@@ -20,6 +45,19 @@ import static graphql.async.ExecutionFuture.complete;
  */
 public class GraphQL extends graphql.GraphQL {
 
+  private final GraphQLSchema graphQLSchema;
+  private final ExecutionStrategy queryStrategy;
+  private final ExecutionStrategy mutationStrategy;
+  private final Map<String, BatchLoader<?, ?>> batchLoaders;
+  private final DocumentCache documentCache;
+  private final Duration timeout;
+  private final BulkheadRegistry bulkheadRegistry;
+  private final AdmissionControl admissionControl;
+  private final boolean memoizing;
+  private final ExecutionInstrumentation instrumentation;
+
+  private static final Logger log = LoggerFactory.getLogger(GraphQL.class);
+
   /**
    * A GraphQL object ready to execute queries
    *
@@ -43,7 +81,7 @@ public class GraphQL extends graphql.GraphQL {
    */
   public GraphQL(GraphQLSchema graphQLSchema, ExecutionStrategy queryStrategy) {
     //noinspection deprecation
-    super(graphQLSchema, queryStrategy, AsyncExecutionStrategy.serial());
+    this(graphQLSchema, queryStrategy, AsyncExecutionStrategy.serial());
   }
 
   /**
@@ -57,7 +95,26 @@ public class GraphQL extends graphql.GraphQL {
    */
   public GraphQL(GraphQLSchema graphQLSchema, ExecutionStrategy queryStrategy,
                  ExecutionStrategy mutationStrategy) {
+    this(graphQLSchema, queryStrategy, mutationStrategy, Collections.emptyMap(), null, null,
+         null, null, false, null);
+  }
+
+  private GraphQL(GraphQLSchema graphQLSchema, ExecutionStrategy queryStrategy,
+                  ExecutionStrategy mutationStrategy, Map<String, BatchLoader<?, ?>> batchLoaders,
+                  DocumentCache documentCache, Duration timeout,
+                  BulkheadRegistry bulkheadRegistry, AdmissionControl admissionControl,
+                  boolean memoizing, ExecutionInstrumentation instrumentation) {
     super(graphQLSchema, queryStrategy, mutationStrategy);
+    this.graphQLSchema = graphQLSchema;
+    this.queryStrategy = queryStrategy;
+    this.mutationStrategy = mutationStrategy;
+    this.batchLoaders = batchLoaders;
+    this.documentCache = documentCache;
+    this.timeout = timeout;
+    this.bulkheadRegistry = bulkheadRegistry;
+    this.admissionControl = admissionControl;
+    this.memoizing = memoizing;
+    this.instrumentation = instrumentation;
     assert queryStrategy instanceof AsyncExecutionStrategy :
       "Async graphql requires an async query strategy";
     assert mutationStrategy instanceof AsyncExecutionStrategy  :
@@ -76,11 +133,62 @@ public class GraphQL extends graphql.GraphQL {
     return new Builder(graphQLSchema);
   }
 
+  /**
+   * @return the document cache, or null if there is none
+   */
+  public DocumentCache getDocumentCache() {
+    return documentCache;
+  }
+
+  /**
+   * @return the time that each request is given, or null if there is no limit
+   */
+  public Duration getTimeout() {
+    return timeout;
+  }
+
+  /**
+   * @param name the name of the bulkhead
+   * @return the bulkhead by that name, say to report its queue depth and active count, or null if
+   * there is none
+   */
+  public Bulkhead getBulkhead(String name) {
+    return bulkheadRegistry != null ? bulkheadRegistry.getBulkhead(name) : null;
+  }
+
+  /**
+   * @return the admission control, or null if there is none
+   */
+  public AdmissionControl getAdmissionControl() {
+    return admissionControl;
+  }
+
+  /**
+   * @return whether the values that data fetchers fetch are memoized for the rest of the request
+   */
+  public boolean isMemoizing() {
+    return memoizing;
+  }
+
+  /**
+   * @return the instrumentation that requests and fields are reported to, or null if there is none
+   */
+  public ExecutionInstrumentation getInstrumentation() {
+    return instrumentation;
+  }
+
   public static class Builder {
 
     private GraphQLSchema graphQLSchema;
     private ExecutionStrategy queryExecutionStrategy = AsyncExecutionStrategy.parallel();
     private ExecutionStrategy mutationExecutionStrategy = AsyncExecutionStrategy.serial();
+    private Map<String, BatchLoader<?, ?>> batchLoaders = new LinkedHashMap<>();
+    private DocumentCache documentCache;
+    private Duration timeout;
+    private Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+    private AdmissionControl admissionControl;
+    private boolean memoizing;
+    private ExecutionInstrumentation instrumentation;
 
     public Builder(GraphQLSchema graphQLSchema) {
       this.graphQLSchema = graphQLSchema;
@@ -104,8 +212,118 @@ public class GraphQL extends graphql.GraphQL {
       return this;
     }
 
+    /**
+     * Register a batch loader, a {@link graphql.execution.DataLoader} of which is made available to
+     * the data fetchers of each request, through {@link
+     * graphql.execution.AsyncDataFetchingEnvironment#getDataLoader(String)}.
+     *
+     * @param name        the name of the data loader
+     * @param batchLoader the batch loader of the data loader
+     * @return this builder
+     */
+    public Builder batchLoader(String name, BatchLoader<?, ?> batchLoader) {
+      assertNotNull(name, "Batch loader name must be non null");
+      assertNotNull(batchLoader, "BatchLoader must be non null");
+      this.batchLoaders.put(name, batchLoader);
+      return this;
+    }
+
+    /**
+     * Cache the documents of requests once they are parsed and validated, so that requests that
+     * are seen again skip both steps.
+     *
+     * @param documentCache the document cache, which may be shared with other GraphQL objects of
+     *                      the same schema
+     * @return this builder
+     */
+    public Builder documentCache(DocumentCache documentCache) {
+      assertNotNull(documentCache, "DocumentCache must be non null");
+      this.documentCache = documentCache;
+      return this;
+    }
+
+    /**
+     * Give each request a deadline, after which the futures of its pending fields are cancelled,
+     * and it completes with the data that it has so far, along with a {@link
+     * graphql.execution.CancellationError} for each field that was cut short.
+     *
+     * @param timeout the time that each request is given, unless it's executed with a {@link
+     *                Cancellation} of its own
+     * @return this builder
+     */
+    public Builder timeout(Duration timeout) {
+      assertNotNull(timeout, "Timeout must be non null");
+      assert !timeout.isNegative() && !timeout.isZero() : "Timeout must be positive";
+      this.timeout = timeout;
+      return this;
+    }
+
+    /**
+     * Register a bulkhead, which resolves the fields that are routed to it, so that a slow backend
+     * cannot take up the threads of every other field. Only fields that are resolved by an {@link
+     * AsyncExecutionStrategy} are routed.
+     *
+     * @param bulkhead the bulkhead, which replaces any other bulkhead by the same name
+     * @return this builder
+     */
+    public Builder bulkhead(Bulkhead bulkhead) {
+      assertNotNull(bulkhead, "Bulkhead must be non null");
+      this.bulkheads.put(bulkhead.getName(), bulkhead);
+      return this;
+    }
+
+    /**
+     * Limit the number of requests that are executed at once, and shed those that find both the
+     * limit and the queue of the admission control full.
+     *
+     * @param admissionControl the admission control, which may be shared with other GraphQL
+     *                         objects, so as to limit them as a whole
+     * @return this builder
+     */
+    public Builder admissionControl(AdmissionControl admissionControl) {
+      assertNotNull(admissionControl, "AdmissionControl must be non null");
+      this.admissionControl = admissionControl;
+      return this;
+    }
+
+    /**
+     * Memoize the values that data fetchers fetch for the rest of each request, keyed by the field
+     * definition, the identity of the source and the arguments, so that aliased or repeated fields,
+     * and entities that are reached along more than one path, are fetched only once. Fields that
+     * share a data fetcher are told apart. Concurrent calls for the same value share the future of
+     * the one that is in flight.
+     *
+     * This only suits data fetchers whose value depends on nothing but their source and
+     * arguments, and not on, say, the selection set of their field. Neither the top level fields
+     * of mutations, nor data fetchers that read a property or a static value, are memoized.
+     *
+     * @param memoizing whether to memoize the values that data fetchers fetch
+     * @return this builder
+     */
+    public Builder memoization(boolean memoizing) {
+      this.memoizing = memoizing;
+      return this;
+    }
+
+    /**
+     * Report the timings of each request, and of each field that an {@link AsyncExecutionStrategy}
+     * resolves, to the given instrumentation, such as a {@link
+     * graphql.execution.HistogramInstrumentation}. Without one, no timings are taken at all.
+     *
+     * @param instrumentation the instrumentation, which may be shared with other GraphQL objects
+     * @return this builder
+     */
+    public Builder instrumentation(ExecutionInstrumentation instrumentation) {
+      assertNotNull(instrumentation, "Instrumentation must be non null");
+      this.instrumentation = instrumentation;
+      return this;
+    }
+
     public GraphQL build() {
-      return new GraphQL(graphQLSchema, queryExecutionStrategy, mutationExecutionStrategy);
+      return new GraphQL(graphQLSchema, queryExecutionStrategy, mutationExecutionStrategy,
+                         new LinkedHashMap<>(batchLoaders), documentCache, timeout,
+                         bulkheads.isEmpty() ? null : new BulkheadRegistry(bulkheads.values()),
+                         admissionControl, memoizing, instrumentation);
     }
   }
 
@@ -117,11 +335,18 @@ public class GraphQL extends graphql.GraphQL {
    * @param context the context object
    * @param arguments the map of arguments
    * @return a completed execution result
+   * @throws RuntimeException whatever the request failed with before it got under way, such as a
+   *                          {@link graphql.GraphQLException} for an unknown operation name, as
+   *                          {@link graphql.GraphQL} would throw it
    */
   @Override
   public ExecutionResult execute(String requestString, String operationName, Object context,
                                  Map<String, Object> arguments) {
-    return complete(super.execute(requestString, operationName, context, arguments));
+    try {
+      return executeAsync(requestString, operationName, context, arguments).join();
+    } catch (CompletionException e) {
+      throw unwrap(e);
+    }
   }
 
   public void execute(String requestString, Consumer<ExecutionResult> consumer) {
@@ -155,7 +380,348 @@ public class GraphQL extends graphql.GraphQL {
    */
   public void execute(String requestString, String operationName, Object context,
                       Map<String, Object> arguments, Consumer<ExecutionResult> consumer) {
-    completable(super.execute(requestString, operationName, context, arguments))
-      .thenAccept(consumer);
+    execute(requestString, operationName, context, arguments, newCancellation(), consumer);
+  }
+
+  /**
+   * Register the given {@link Consumer} with the {@link java.util.concurrent.CompletableFuture}
+   * corresponding to the {@link ExecutionResult}, which completes early if the given {@link
+   * Cancellation} is cancelled, or its deadline passes.
+   *
+   * A request that fails before it gets under way on the calling thread, such as one with an
+   * unknown operation name, throws, as {@link graphql.GraphQL} would. One that fails later on, say
+   * once the {@link AdmissionControl} lets it in, hands the consumer a result with a {@link
+   * RequestError} instead.
+   *
+   * @param requestString the request string
+   * @param operationName the operation name
+   * @param context the context object
+   * @param arguments the map of arguments
+   * @param cancellation the cancellation of the request, which takes the place of the timeout of
+   *                     this GraphQL object, if any
+   * @param consumer the consumer of the execution result
+   * @throws RuntimeException whatever the request failed with on the calling thread
+   */
+  public void execute(String requestString, String operationName, Object context,
+                      Map<String, Object> arguments, Cancellation cancellation,
+                      Consumer<ExecutionResult> consumer) {
+    CompletableFuture<ExecutionResult> executionResult =
+      executeAsync(requestString, operationName, context, arguments, cancellation);
+    if (executionResult.isCompletedExceptionally()) {
+      try {
+        executionResult.join();
+      } catch (CompletionException e) {
+        throw unwrap(e);
+      }
+    }
+    executionResult.whenComplete((result, throwable) -> consumer.accept(
+      throwable != null ? failedResult(throwable) : result));
+  }
+
+  /**
+   * Execute the request without blocking, and return a future of its result to compose on.
+   *
+   * @param requestString the request string
+   * @param operationName the operation name
+   * @param context the context object
+   * @param arguments the map of arguments
+   * @return a completable future of the execution result, whose data is free of futures
+   */
+  public CompletableFuture<ExecutionResult> executeAsync(String requestString,
+                                                         String operationName, Object context,
+                                                         Map<String, Object> arguments) {
+    return executeAsync(requestString, operationName, context, arguments, newCancellation());
+  }
+
+  /**
+   * Execute the request without blocking, and return a future of its result to compose on, which
+   * completes early if the given {@link Cancellation} is cancelled, or its deadline passes.
+   *
+   * If there is an {@link AdmissionControl}, then the request may wait for its turn, or be shed,
+   * in which case the result holds only a {@link LoadSheddingError}.
+   *
+   * @param requestString the request string
+   * @param operationName the operation name
+   * @param context the context object
+   * @param arguments the map of arguments
+   * @param cancellation the cancellation of the request, which takes the place of the timeout of
+   *                     this GraphQL object, if any
+   * @return a completable future of the execution result, whose data is free of futures
+   */
+  public CompletableFuture<ExecutionResult> executeAsync(String requestString,
+                                                         String operationName, Object context,
+                                                         Map<String, Object> arguments,
+                                                         Cancellation cancellation) {
+    return admit(requestString, null, operationName, context, arguments, cancellation, null,
+                 null);
+  }
+
+  /**
+   * Execute a persisted query without blocking, that is a request whose client sends the hash of
+   * the request string in its place, as long as the document of the request string is in the
+   * {@link DocumentCache}. The hash is the key of the request string in the cache, so the cache
+   * needs a key function that hashes request strings the way the clients do, such as {@link
+   * DocumentCache#sha256(String)}.
+   *
+   * If the document is not cached, and no request string is sent along, the result holds only a
+   * {@link PersistedQueryError}, upon which the client is expected to send both. The request
+   * string is then executed, and its document cached under the hash, as long as the hash matches.
+   *
+   * @param queryHash the hash of the request string, as the key function of the cache makes it
+   * @param requestString the request string, or null if the client sent only the hash
+   * @param operationName the operation name
+   * @param context the context object
+   * @param arguments the map of arguments
+   * @return a completable future of the execution result, whose data is free of futures
+   */
+  public CompletableFuture<ExecutionResult> executePersisted(String queryHash,
+                                                             String requestString,
+                                                             String operationName, Object context,
+                                                             Map<String, Object> arguments) {
+    assertNotNull(queryHash, "Query hash must be non null");
+    assertNotNull(documentCache, "Persisted queries require a DocumentCache");
+    return admit(requestString, queryHash, operationName, context, arguments, newCancellation(),
+                 null, null);
+  }
+
+  /**
+   * Execute the request without blocking, and hand a {@link Patch} to the given consumer as soon
+   * as each top level field is done, along with the whole of its sub-selection, so that fast
+   * fields need not wait for slow ones. A last patch, without data, follows once the request is
+   * complete.
+   *
+   * Patches are handed over one at a time, but not necessarily on the same thread, nor in the
+   * order of the fields.
+   *
+   * @param requestString the request string
+   * @param operationName the operation name
+   * @param context the context object
+   * @param arguments the map of arguments
+   * @param patchConsumer the consumer of the patches
+   * @return a completable future of the whole execution result
+   */
+  public CompletableFuture<ExecutionResult> executeIncrementally(String requestString,
+                                                                 String operationName,
+                                                                 Object context,
+                                                                 Map<String, Object> arguments,
+                                                                 Consumer<Patch> patchConsumer) {
+    PatchEmitter patchEmitter = new PatchEmitter(patchConsumer);
+    return admit(requestString, null, operationName, context, arguments, newCancellation(),
+                 patchEmitter, null)
+      .whenComplete((executionResult, throwable) -> {
+        if (executionResult != null) {
+          patchEmitter.finish(executionResult);
+        }
+      });
+  }
+
+  /**
+   * Execute the request without blocking, and write its response to the given output stream as
+   * JSON, encoded as UTF-8. Each top level field is written as soon as it's done, along with the
+   * whole of its sub-selection, and every field before it, so that the client gets the first bytes
+   * of a large response early on. The data of the fields is not collected into the execution
+   * result as well, and can be let go of once it's written.
+   *
+   * @param requestString the request string
+   * @param operationName the operation name
+   * @param context the context object
+   * @param arguments the map of arguments
+   * @param outputStream the output stream to write to, which is flushed but not closed
+   * @return a completable future of the execution result, without its data, which is completed
+   * once the response is written
+   */
+  public CompletableFuture<ExecutionResult> executeStreaming(String requestString,
+                                                             String operationName,
+                                                             Object context,
+                                                             Map<String, Object> arguments,
+                                                             OutputStream outputStream) {
+    JsonEmitter jsonEmitter = new JsonEmitter(outputStream);
+    return admit(requestString, null, operationName, context, arguments, newCancellation(),
+                 jsonEmitter, null)
+      .thenCompose(executionResult -> jsonEmitter.finish(executionResult)
+        .thenApply(written -> executionResult));
+  }
+
+  /**
+   * Execute a batch of requests without blocking, such as those that a client sends in one HTTP
+   * request, and return a future of their results, in the order of the requests.
+   *
+   * The requests run at the same time, and share their data loaders and, if there is {@link
+   * Builder#memoization(boolean) memoization}, the values that their data fetchers fetched, so
+   * that a key or a value that several of them ask for is loaded or fetched only once. The keys
+   * that they load are not dispatched until all of them have been started. Each of them has a
+   * timeout of its own, and goes through {@link AdmissionControl}, if there is any, on its own.
+   *
+   * A mutation starts a memo of its own, which the requests after it share in turn, so that none
+   * of them is handed a value that was fetched before the mutation was started. The requests are
+   * not run one after the other, though, so a request after a mutation may still run before it.
+   *
+   * A request that fails before it gets under way, say because it names an operation that its
+   * document does not have, gets a result with a {@link RequestError}, and leaves the results of
+   * the others be.
+   *
+   * @param executionInputs the requests of the batch
+   * @return a completable future of the execution results, whose data is free of futures
+   */
+  public CompletableFuture<List<ExecutionResult>> executeBatch(
+    List<ExecutionInput> executionInputs) {
+    AsyncExecution batch = newExecution(null);
+    List<CompletableFuture<ExecutionResult>> executionResults = batch.startTogether(() -> {
+      List<CompletableFuture<ExecutionResult>> started = new ArrayList<>(executionInputs.size());
+      for (ExecutionInput executionInput : executionInputs) {
+        started.add(admit(executionInput.getRequestString(), null,
+                          executionInput.getOperationName(),
+                          executionInput.getContext(), executionInput.getArguments(),
+                          newCancellation(), null, batch)
+                      .exceptionally(GraphQL::failedResult));
+      }
+      return started;
+    });
+    return CompletableFuture
+      .allOf(executionResults.toArray(new CompletableFuture<?>[executionResults.size()]))
+      .thenApply(done -> {
+        List<ExecutionResult> results = new ArrayList<>(executionResults.size());
+        for (CompletableFuture<ExecutionResult> executionResult : executionResults) {
+          results.add(executionResult.join());
+        }
+        return results;
+      });
+  }
+
+  private CompletableFuture<ExecutionResult> admit(String requestString, String queryHash,
+                                                   String operationName, Object context,
+                                                   Map<String, Object> arguments,
+                                                   Cancellation cancellation,
+                                                   OperationListener operationListener,
+                                                   AsyncExecution batch) {
+    if (instrumentation == null) {
+      if (admissionControl == null) {
+        return executeCompletable(requestString, queryHash, operationName, context, arguments,
+                                  cancellation, operationListener, batch);
+      }
+      return admissionControl.admit(
+        () -> executeCompletable(requestString, queryHash, operationName, context, arguments,
+                                 cancellation, operationListener, batch));
+    }
+    long enqueued = System.nanoTime();
+    long[] started = new long[1];
+    Supplier<CompletableFuture<ExecutionResult>> execution = () -> {
+      started[0] = System.nanoTime();
+      return executeCompletable(requestString, queryHash, operationName, context, arguments,
+                                cancellation, operationListener, batch);
+    };
+    CompletableFuture<ExecutionResult> executionResult =
+      admissionControl != null ? admissionControl.admit(execution) : execution.get();
+    return executionResult.whenComplete((result, throwable) -> instrumentation.onRequest(
+      enqueued, started[0], System.nanoTime(), result != null ? result.getErrors().size() : 1));
+  }
+
+  private CompletableFuture<ExecutionResult> executeCompletable(
+    String requestString, String queryHash, String operationName, Object context,
+    Map<String, Object> arguments, Cancellation cancellation, OperationListener operationListener,
+    AsyncExecution batch) {
+    ExecutionResult executionResult;
+    try {
+      executionResult = executeRequest(requestString, queryHash, operationName, context, arguments,
+                                       cancellation, operationListener, batch);
+    } catch (RuntimeException e) {
+      // Stop the deadline timer of a request that failed before it got under way, and fail its
+      // future, as the admission control would
+      if (cancellation != null) {
+        cancellation.done();
+      }
+      CompletableFuture<ExecutionResult> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+    // Complete on the thread that resolves the last future, rather than hop over to another
+    return completable(executionResult, (Executor) null)
+      .whenComplete((completedResult, throwable) -> {
+        if (cancellation != null) {
+          cancellation.done();
+        }
+      });
+  }
+
+  /**
+   * @return the result of a request that failed before it got under way
+   */
+  private static ExecutionResult failedResult(Throwable throwable) {
+    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ?
+                      throwable.getCause() : throwable;
+    return new ExecutionResultImpl(Collections.singletonList(new RequestError(cause)));
+  }
+
+  private static RuntimeException unwrap(CompletionException e) {
+    return e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+  }
+
+  private AsyncExecution newExecution(Cancellation cancellation) {
+    DataLoaderRegistry dataLoaderRegistry =
+      batchLoaders.isEmpty() ? null : new DataLoaderRegistry(batchLoaders);
+    return new AsyncExecution(queryStrategy, mutationStrategy, dataLoaderRegistry, cancellation,
+                              bulkheadRegistry, memoizing, instrumentation);
+  }
+
+  private Cancellation newCancellation() {
+    return timeout != null ? Cancellation.withTimeout(timeout) : null;
+  }
+
+  /**
+   * Parse, validate and execute the request, in the same manner as {@link graphql.GraphQL} does,
+   * except that the operation is run by an {@link AsyncExecution}, and the document may come from
+   * the {@link DocumentCache}.
+   *
+   * @param queryHash the key of the request string in the document cache, as a client of persisted
+   *                  queries sends it, or null if there is none
+   * @param batch the execution of the batch that the request belongs to, whose data loaders and
+   *              memo of fetched values it shares, or null if it stands alone
+   * @return an execution result whose data may be wrapped in a completable future
+   */
+  private ExecutionResult executeRequest(String requestString, String queryHash,
+                                         String operationName, Object context,
+                                         Map<String, Object> arguments,
+                                         Cancellation cancellation,
+                                         OperationListener operationListener,
+                                         AsyncExecution batch) {
+    assertNotNull(arguments, "arguments can't be null");
+    log.debug("Executing request. operation name: {}. Request: {} ", operationName, requestString);
+    ExecutionPlan executionPlan = null;
+    if (queryHash != null) {
+      executionPlan = documentCache.getByKey(queryHash);
+      if (executionPlan == null && requestString == null) {
+        return new ExecutionResultImpl(
+          Collections.singletonList(PersistedQueryError.notFound(queryHash)));
+      }
+      if (executionPlan == null && !queryHash.equals(documentCache.key(requestString))) {
+        return new ExecutionResultImpl(
+          Collections.singletonList(PersistedQueryError.mismatch(queryHash)));
+      }
+    } else if (documentCache != null) {
+      executionPlan = documentCache.get(requestString);
+    }
+    if (executionPlan == null) {
+      Document document;
+      try {
+        document = new Parser().parseDocument(requestString);
+      } catch (RuntimeException e) {
+        // Let graphql-java report the syntax error
+        return super.execute(requestString, operationName, context, arguments);
+      }
+      List<ValidationError> validationErrors =
+        new Validator().validateDocument(graphQLSchema, document);
+      if (validationErrors.size() > 0) {
+        return new ExecutionResultImpl(validationErrors);
+      }
+      executionPlan = new ExecutionPlan(document);
+      if (documentCache != null) {
+        documentCache.put(requestString, executionPlan);
+      }
+    }
+    AsyncExecution execution = batch != null ?
+                               batch.withCancellation(cancellation) :
+                               newExecution(cancellation);
+    return execution.execute(graphQLSchema, context, executionPlan, operationName, arguments,
+                             operationListener);
   }
 }
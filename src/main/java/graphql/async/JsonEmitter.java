@@ -0,0 +1,114 @@
+package graphql.async;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.execution.OperationListener;
+
+/**
+ * Writes the top level fields of an operation to a JSON response as each of them is done, in the
+ * order of the fields, so that a field waits only for those before it. Fields that are done ahead
+ * of those before them are held on to until it's their turn.
+ *
+ * The data of the fields is not collected into the data of the execution result, so each of them
+ * can be let go of once it's written.
+ */
+class JsonEmitter implements OperationListener {
+
+  private final JsonWriter writer;
+  private final Map<Integer, Object[]> early = new HashMap<>();
+  private CompletableFuture<Void> written = CompletableFuture.completedFuture(null);
+  private int next;
+  private boolean started;
+
+  JsonEmitter(OutputStream outputStream) {
+    this.writer = new JsonWriter(outputStream);
+  }
+
+  @Override
+  public synchronized void onField(int index, String name, Object data,
+                                   List<GraphQLError> errors) {
+    if (index != next) {
+      early.put(index, new Object[]{name, data});
+      return;
+    }
+    write(name, data);
+    Object[] field;
+    while ((field = early.remove(++next)) != null) {
+      write((String) field[0], field[1]);
+    }
+    written = written.thenCompose(fieldWritten -> flush());
+  }
+
+  @Override
+  public boolean retainsData() {
+    return false;
+  }
+
+  /**
+   * Write the rest of the response, once the execution result is complete.
+   *
+   * If no field was written, say because the request failed to validate, or was shed, then the
+   * data of the result, if any, is written instead.
+   *
+   * @param executionResult the complete execution result
+   * @return a future that is completed once the response is written
+   */
+  synchronized CompletableFuture<Void> finish(ExecutionResult executionResult) {
+    if (started) {
+      written = written.thenCompose(fieldsWritten -> {
+        try {
+          writer.endObject();
+        } catch (IOException e) {
+          return JsonSerializer.failed(e);
+        }
+        return CompletableFuture.completedFuture(null);
+      });
+    } else {
+      written = written.thenCompose(nothingWritten -> {
+        try {
+          writer.beginObject();
+          writer.name("data");
+        } catch (IOException e) {
+          return JsonSerializer.failed(e);
+        }
+        return writer.value(executionResult.getData());
+      });
+    }
+    return written.thenCompose(
+      dataWritten -> JsonSerializer.end(writer, executionResult.getErrors()));
+  }
+
+  private void write(String name, Object data) {
+    boolean first = !started;
+    started = true;
+    written = written.thenCompose(previousWritten -> {
+      try {
+        if (first) {
+          writer.beginObject();
+          writer.name("data");
+          writer.beginObject();
+        }
+        writer.name(name);
+      } catch (IOException e) {
+        return JsonSerializer.failed(e);
+      }
+      return writer.value(data);
+    });
+  }
+
+  private CompletableFuture<Void> flush() {
+    try {
+      writer.flush();
+    } catch (IOException e) {
+      return JsonSerializer.failed(e);
+    }
+    return CompletableFuture.completedFuture(null);
+  }
+}
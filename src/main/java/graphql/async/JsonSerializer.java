@@ -0,0 +1,110 @@
+package graphql.async;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+
+/**
+ * Serializes execution results to JSON, encoded as UTF-8, without building a string or a tree of
+ * the response first.
+ *
+ * The data of the result may still hold the {@link CompletableFuture}s of its execution, in which
+ * case each subtree is written, in the order of the fields, as soon as the fields before it are
+ * done, rather than after {@link ExecutionFuture#complete(ExecutionResult)} has resolved the whole
+ * of the data.
+ *
+ * To write the top level fields of a request as they are done, without collecting them into the
+ * data of the execution result at all, see {@link GraphQL#executeStreaming}.
+ */
+public class JsonSerializer {
+
+  /**
+   * Write the given execution result as a JSON response, with its data and, if there are any, its
+   * errors, as well as those of the futures in its data that failed.
+   *
+   * @param executionResult the execution result, whose data may hold completable futures
+   * @param outputStream    the output stream to write to, which is flushed but not closed
+   * @return a future that is completed once the response is written, or completed exceptionally
+   * with an {@link UncheckedIOException} if the output stream failed
+   */
+  public static CompletableFuture<Void> serialize(ExecutionResult executionResult,
+                                                  OutputStream outputStream) {
+    JsonWriter writer = new JsonWriter(outputStream);
+    try {
+      writer.beginObject();
+      writer.name("data");
+    } catch (IOException e) {
+      return failed(e);
+    }
+    return writer.value(executionResult.getData())
+      .thenCompose(written -> end(writer, executionResult.getErrors()));
+  }
+
+  /**
+   * Write the given execution result as a JSON response, into the given byte buffer.
+   *
+   * @param executionResult the execution result, whose data may hold completable futures
+   * @param byteBuffer      the byte buffer to write to, from its position on
+   * @return a future that is completed once the response is written, or completed exceptionally
+   * with a {@link java.nio.BufferOverflowException} if the buffer is too small
+   */
+  public static CompletableFuture<Void> serialize(ExecutionResult executionResult,
+                                                  ByteBuffer byteBuffer) {
+    return serialize(executionResult, new ByteBufferOutputStream(byteBuffer));
+  }
+
+  /**
+   * Close the object of the response, once its data is written, with the given errors, along with
+   * those of the futures that failed while they were written.
+   */
+  static CompletableFuture<Void> end(JsonWriter writer, List<GraphQLError> errors) {
+    try {
+      List<GraphQLError> failures = writer.getErrors();
+      if (!failures.isEmpty()) {
+        errors = new ArrayList<>(errors);
+        errors.addAll(failures);
+      }
+      if (!errors.isEmpty()) {
+        writer.name("errors");
+        writer.errors(errors);
+      }
+      writer.endObject();
+      writer.flush();
+      return CompletableFuture.completedFuture(null);
+    } catch (IOException e) {
+      return failed(e);
+    }
+  }
+
+  static CompletableFuture<Void> failed(IOException e) {
+    CompletableFuture<Void> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new UncheckedIOException(e));
+    return failed;
+  }
+
+  private static class ByteBufferOutputStream extends OutputStream {
+
+    private final ByteBuffer byteBuffer;
+
+    private ByteBufferOutputStream(ByteBuffer byteBuffer) {
+      this.byteBuffer = byteBuffer;
+    }
+
+    @Override
+    public void write(int b) {
+      byteBuffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+      byteBuffer.put(bytes, offset, length);
+    }
+  }
+}
@@ -0,0 +1,326 @@
+package graphql.async;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import graphql.ExceptionWhileDataFetching;
+import graphql.GraphQLError;
+import graphql.language.SourceLocation;
+
+/**
+ * Writes JSON, encoded as UTF-8, to an output stream, through a buffer of its own.
+ *
+ * Values may hold {@link CompletableFuture}s, at any depth, each of which is written in place as
+ * soon as it and everything before it is done. What is written so far is flushed whenever the
+ * writer has to wait for a future, so that the client gets it as early as possible. A writer is not
+ * thread safe, but it may be handed from one thread to the next, as futures complete.
+ */
+class JsonWriter {
+
+  private static final int BUFFER_SIZE = 8192;
+  private static final Object NONE = new Object();
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  private final OutputStream outputStream;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private final Queue<GraphQLError> errors = new ConcurrentLinkedQueue<>();
+  private int position;
+  private boolean[] arrays = new boolean[16];
+  private boolean[] firsts = new boolean[16];
+  private int depth;
+
+  JsonWriter(OutputStream outputStream) {
+    this.outputStream = outputStream;
+  }
+
+  /**
+   * @return the errors of the futures that failed while they were written, in place of which null
+   * was written
+   */
+  List<GraphQLError> getErrors() {
+    return new ArrayList<>(errors);
+  }
+
+  void beginObject() throws IOException {
+    beforeValue();
+    write('{');
+    push(false);
+  }
+
+  void endObject() throws IOException {
+    depth--;
+    write('}');
+  }
+
+  void beginArray() throws IOException {
+    beforeValue();
+    write('[');
+    push(true);
+  }
+
+  void endArray() throws IOException {
+    depth--;
+    write(']');
+  }
+
+  void name(String name) throws IOException {
+    if (!firsts[depth]) {
+      write(',');
+    }
+    firsts[depth] = false;
+    string(name);
+    write(':');
+  }
+
+  /**
+   * Write the given value, whose maps and lists may hold futures, once all of them are done.
+   *
+   * @param value the value to write
+   * @return a future that is completed once the value is written, on the thread that completed its
+   * last future, or exceptionally, if the output stream failed
+   */
+  CompletableFuture<Void> value(Object value) {
+    CompletableFuture<Void> written = new CompletableFuture<>();
+    walk(value, new ArrayDeque<>(), written);
+    return written;
+  }
+
+  /**
+   * Write the given errors, in the form of the specification, as a list of objects with a message
+   * and, if there are any, the locations in the request that they refer to.
+   */
+  void errors(List<GraphQLError> errors) throws IOException {
+    beginArray();
+    for (GraphQLError error : errors) {
+      beginObject();
+      name("message");
+      scalar(error.getMessage());
+      List<SourceLocation> locations = error.getLocations();
+      if (locations != null && !locations.isEmpty()) {
+        name("locations");
+        beginArray();
+        for (SourceLocation location : locations) {
+          beginObject();
+          name("line");
+          scalar(location.getLine());
+          name("column");
+          scalar(location.getColumn());
+          endObject();
+        }
+        endArray();
+      }
+      endObject();
+    }
+    endArray();
+  }
+
+  /**
+   * Hand what is buffered over to the output stream, and flush it.
+   */
+  void flush() throws IOException {
+    drain();
+    outputStream.flush();
+  }
+
+  /**
+   * Walk the value and the maps and lists in it, keeping an iterator for each map or list that is
+   * open, and stop at the first future that is not done, to resume once it is.
+   */
+  @SuppressWarnings("unchecked")
+  private void walk(Object value, Deque<Iterator<?>> iterators, CompletableFuture<Void> written) {
+    try {
+      while (true) {
+        while (value instanceof CompletableFuture) {
+          CompletableFuture<Object> future = (CompletableFuture<Object>) value;
+          if (!future.isDone()) {
+            flush();
+            future.whenComplete((completedValue, throwable) ->
+                                  walk(throwable != null ? fail(throwable) : completedValue,
+                                       iterators, written));
+            return;
+          }
+          if (future.isCompletedExceptionally()) {
+            future.whenComplete((completedValue, throwable) -> fail(throwable));
+            value = null;
+          } else {
+            value = future.getNow(null);
+          }
+        }
+        if (value instanceof Map) {
+          beginObject();
+          iterators.push(((Map<Object, Object>) value).entrySet().iterator());
+        } else if (value instanceof Iterable) {
+          beginArray();
+          iterators.push(((Iterable<Object>) value).iterator());
+        } else if (value instanceof Object[]) {
+          beginArray();
+          iterators.push(Arrays.asList((Object[]) value).iterator());
+        } else {
+          scalar(value);
+        }
+        value = NONE;
+        while (value == NONE) {
+          if (iterators.isEmpty()) {
+            written.complete(null);
+            return;
+          }
+          Iterator<?> iterator = iterators.peek();
+          if (!iterator.hasNext()) {
+            iterators.pop();
+            if (arrays[depth]) {
+              endArray();
+            } else {
+              endObject();
+            }
+          } else if (arrays[depth]) {
+            value = iterator.next();
+          } else {
+            Map.Entry<Object, Object> entry = (Map.Entry<Object, Object>) iterator.next();
+            name(String.valueOf(entry.getKey()));
+            value = entry.getValue();
+          }
+        }
+      }
+    } catch (IOException e) {
+      written.completeExceptionally(new UncheckedIOException(e));
+    } catch (RuntimeException e) {
+      written.completeExceptionally(e);
+    }
+  }
+
+  private Object fail(Throwable throwable) {
+    if (throwable instanceof CompletionException && throwable.getCause() != null) {
+      throwable = throwable.getCause();
+    }
+    errors.add(new ExceptionWhileDataFetching(throwable));
+    return null;
+  }
+
+  private void scalar(Object value) throws IOException {
+    beforeValue();
+    if (value == null) {
+      ascii("null");
+    } else if (value instanceof Double || value instanceof Float) {
+      double number = ((Number) value).doubleValue();
+      ascii(Double.isNaN(number) || Double.isInfinite(number) ? "null" : value.toString());
+    } else if (value instanceof Number || value instanceof Boolean) {
+      ascii(value.toString());
+    } else {
+      string(value.toString());
+    }
+  }
+
+  private void beforeValue() throws IOException {
+    if (depth > 0 && arrays[depth]) {
+      if (!firsts[depth]) {
+        write(',');
+      }
+      firsts[depth] = false;
+    }
+  }
+
+  private void push(boolean array) {
+    if (++depth == arrays.length) {
+      arrays = Arrays.copyOf(arrays, depth * 2);
+      firsts = Arrays.copyOf(firsts, depth * 2);
+    }
+    arrays[depth] = array;
+    firsts[depth] = true;
+  }
+
+  /**
+   * Write a quoted string, escaping what JSON requires to be escaped, and encoding the rest as
+   * UTF-8. Unpaired surrogates are escaped as well, rather than being encoded.
+   */
+  private void string(String string) throws IOException {
+    write('"');
+    int length = string.length();
+    for (int i = 0; i < length; i++) {
+      char c = string.charAt(i);
+      if (position + 6 > buffer.length) {
+        drain();
+      }
+      if (c < 0x80) {
+        if (c == '"' || c == '\\') {
+          buffer[position++] = '\\';
+          buffer[position++] = (byte) c;
+        } else if (c < 0x20) {
+          escape(c);
+        } else {
+          buffer[position++] = (byte) c;
+        }
+      } else if (c < 0x800) {
+        buffer[position++] = (byte) (0xC0 | (c >> 6));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < length &&
+                 Character.isLowSurrogate(string.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, string.charAt(++i));
+        buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        escape(c);
+      } else {
+        buffer[position++] = (byte) (0xE0 | (c >> 12));
+        buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    write('"');
+  }
+
+  private void escape(char c) {
+    buffer[position++] = '\\';
+    switch (c) {
+      case '\n':
+        buffer[position++] = 'n';
+        break;
+      case '\r':
+        buffer[position++] = 'r';
+        break;
+      case '\t':
+        buffer[position++] = 't';
+        break;
+      default:
+        buffer[position++] = 'u';
+        buffer[position++] = HEX[(c >> 12) & 0xF];
+        buffer[position++] = HEX[(c >> 8) & 0xF];
+        buffer[position++] = HEX[(c >> 4) & 0xF];
+        buffer[position++] = HEX[c & 0xF];
+    }
+  }
+
+  private void ascii(String string) throws IOException {
+    for (int i = 0; i < string.length(); i++) {
+      write(string.charAt(i));
+    }
+  }
+
+  private void write(char c) throws IOException {
+    if (position == buffer.length) {
+      drain();
+    }
+    buffer[position++] = (byte) c;
+  }
+
+  private void drain() throws IOException {
+    if (position > 0) {
+      outputStream.write(buffer, 0, position);
+      position = 0;
+    }
+  }
+}
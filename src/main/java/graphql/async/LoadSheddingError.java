@@ -0,0 +1,34 @@
+package graphql.async;
+
+import java.util.List;
+
+import graphql.ErrorType;
+import graphql.GraphQLError;
+import graphql.language.SourceLocation;
+
+/**
+ * The error of a request that was shed by the {@link AdmissionControl}, because too many requests
+ * were in flight, and too many were waiting for their turn.
+ */
+public class LoadSheddingError implements GraphQLError {
+
+  @Override
+  public String getMessage() {
+    return "The request was shed, because the server is at capacity";
+  }
+
+  @Override
+  public List<SourceLocation> getLocations() {
+    return null;
+  }
+
+  @Override
+  public ErrorType getErrorType() {
+    return ErrorType.DataFetchingException;
+  }
+
+  @Override
+  public String toString() {
+    return "LoadSheddingError{}";
+  }
+}
@@ -0,0 +1,62 @@
+package graphql.async;
+
+import java.util.Collections;
+import java.util.List;
+
+import graphql.GraphQLError;
+
+/**
+ * A part of the result of a request that is executed {@link GraphQL#executeIncrementally
+ * incrementally}, in the style of {@code @defer}: the data of a top level field, as soon as it's
+ * done, along with the errors that were raised since the previous patch.
+ *
+ * The last patch of a request has no path and no data, only the errors that were not delivered
+ * yet, and {@link #hasNext()} false. If the request failed to parse or validate, then it also has
+ * the data of the result, if any.
+ */
+public class Patch {
+
+  private final List<Object> path;
+  private final Object data;
+  private final List<GraphQLError> errors;
+  private final boolean hasNext;
+
+  public Patch(List<Object> path, Object data, List<GraphQLError> errors, boolean hasNext) {
+    this.path = path;
+    this.data = data;
+    this.errors = errors;
+    this.hasNext = hasNext;
+  }
+
+  /**
+   * @return the path of the data in the result, which is empty for the last patch
+   */
+  public List<Object> getPath() {
+    return path;
+  }
+
+  public Object getData() {
+    return data;
+  }
+
+  public List<GraphQLError> getErrors() {
+    return errors;
+  }
+
+  /**
+   * @return true if more patches are to follow
+   */
+  public boolean hasNext() {
+    return hasNext;
+  }
+
+  @Override
+  public String toString() {
+    return "Patch{path=" + path + ", data=" + data + ", errors=" + errors + ", hasNext=" +
+           hasNext + '}';
+  }
+
+  static Patch last(Object data, List<GraphQLError> errors) {
+    return new Patch(Collections.emptyList(), data, errors, false);
+  }
+}
@@ -0,0 +1,61 @@
+package graphql.async;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.execution.OperationListener;
+
+/**
+ * Turns the top level fields of an operation into {@link Patch}es, as each of them is done, and
+ * hands them to a consumer, one at a time. Each patch carries the errors that were raised since the
+ * previous one, so that every error is delivered once.
+ */
+class PatchEmitter implements OperationListener {
+
+  private final Consumer<Patch> consumer;
+  private int deliveredErrors;
+  private boolean reported;
+  private boolean finished;
+
+  PatchEmitter(Consumer<Patch> consumer) {
+    this.consumer = consumer;
+  }
+
+  @Override
+  public synchronized void onField(int index, String name, Object data,
+                                   List<GraphQLError> errors) {
+    if (!finished) {
+      reported = true;
+      consumer.accept(new Patch(Collections.singletonList(name), data, newErrors(errors), true));
+    }
+  }
+
+  /**
+   * Hand over the last patch, once the execution result is complete.
+   *
+   * If no field was reported, say because the request failed to validate, or was shed, then the data
+   * of the result, if any, goes into the last patch.
+   *
+   * @param executionResult the complete execution result
+   */
+  synchronized void finish(ExecutionResult executionResult) {
+    if (!finished) {
+      finished = true;
+      consumer.accept(Patch.last(reported ? null : executionResult.getData(),
+                                 newErrors(executionResult.getErrors())));
+    }
+  }
+
+  private List<GraphQLError> newErrors(List<GraphQLError> errors) {
+    if (errors.size() <= deliveredErrors) {
+      return Collections.emptyList();
+    }
+    List<GraphQLError> newErrors = new ArrayList<>(errors.subList(deliveredErrors, errors.size()));
+    deliveredErrors = errors.size();
+    return newErrors;
+  }
+}
@@ -0,0 +1,55 @@
+package graphql.async;
+
+import java.util.List;
+
+import graphql.ErrorType;
+import graphql.GraphQLError;
+import graphql.language.SourceLocation;
+
+/**
+ * The error of a {@link GraphQL#executePersisted(String, String, String, Object, java.util.Map)
+ * persisted query} whose hash is not in the {@link DocumentCache}, and that came without a request
+ * string, or whose request string does not match its hash.
+ */
+public class PersistedQueryError implements GraphQLError {
+
+  private final String queryHash;
+  private final String message;
+
+  private PersistedQueryError(String queryHash, String message) {
+    this.queryHash = queryHash;
+    this.message = message;
+  }
+
+  static PersistedQueryError notFound(String queryHash) {
+    return new PersistedQueryError(queryHash, "PersistedQueryNotFound");
+  }
+
+  static PersistedQueryError mismatch(String queryHash) {
+    return new PersistedQueryError(queryHash, "The request string does not match its hash");
+  }
+
+  public String getQueryHash() {
+    return queryHash;
+  }
+
+  @Override
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public List<SourceLocation> getLocations() {
+    return null;
+  }
+
+  @Override
+  public ErrorType getErrorType() {
+    return ErrorType.ValidationError;
+  }
+
+  @Override
+  public String toString() {
+    return "PersistedQueryError{queryHash=" + queryHash + ", message=" + message + '}';
+  }
+}
@@ -0,0 +1,46 @@
+package graphql.async;
+
+import java.util.List;
+
+import graphql.ErrorType;
+import graphql.GraphQLError;
+import graphql.language.SourceLocation;
+
+/**
+ * The error of a request that failed before it got under way, say because it named an operation
+ * that its document does not have, in those places where the failure can't be thrown to the
+ * caller, such as the results of a batch, or a consumer that the request was handed off to.
+ */
+public class RequestError implements GraphQLError {
+
+  private final Throwable exception;
+
+  public RequestError(Throwable exception) {
+    this.exception = exception;
+  }
+
+  public Throwable getException() {
+    return exception;
+  }
+
+  @Override
+  public String getMessage() {
+    return "The request failed: " +
+           (exception.getMessage() != null ? exception.getMessage() : exception.toString());
+  }
+
+  @Override
+  public List<SourceLocation> getLocations() {
+    return null;
+  }
+
+  @Override
+  public ErrorType getErrorType() {
+    return ErrorType.ValidationError;
+  }
+
+  @Override
+  public String toString() {
+    return "RequestError{exception=" + exception + '}';
+  }
+}
@@ -0,0 +1,24 @@
+package graphql.execution;
+
+import graphql.schema.DataFetcher;
+
+/**
+ * A {@link DataFetcher} that tells the {@link AsyncExecutionStrategy} whether it ought to be invoked
+ * on the strategy's {@link java.util.concurrent.ExecutorService}, or inline on the calling thread.
+ *
+ * By default, implementing this interface marks the data fetcher as async, which is what you want
+ * for data fetchers that block, say on I/O. Cheap data fetchers may instead opt in to being invoked
+ * inline, by returning false from {@link #isAsync()}.
+ *
+ * Note that a data fetcher that returns a {@link java.util.concurrent.CompletableFuture} need not be
+ * async, since the strategy never waits on that future.
+ */
+public interface AsyncDataFetcher extends DataFetcher {
+
+  /**
+   * @return true if this data fetcher should be invoked on the strategy's executor service
+   */
+  default boolean isAsync() {
+    return true;
+  }
+}
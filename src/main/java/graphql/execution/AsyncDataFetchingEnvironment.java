@@ -0,0 +1,51 @@
+package graphql.execution;
+
+import java.util.List;
+import java.util.Map;
+
+import graphql.language.Field;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLOutputType;
+import graphql.schema.GraphQLType;
+
+/**
+ * The {@link DataFetchingEnvironment} that the {@link AsyncExecutionStrategy} passes to data
+ * fetchers, which gives them access to the state of the request, such as its {@link DataLoader}s
+ * and its {@link Cancellation}.
+ */
+public class AsyncDataFetchingEnvironment extends DataFetchingEnvironment {
+
+  private final ExecutionContext executionContext;
+
+  public AsyncDataFetchingEnvironment(Object source, Map<String, Object> arguments, Object context,
+                                      List<Field> fields, GraphQLOutputType fieldType,
+                                      GraphQLType parentType,
+                                      ExecutionContext executionContext) {
+    super(source, arguments, context, fields, fieldType, parentType,
+          executionContext.getGraphQLSchema());
+    this.executionContext = executionContext;
+  }
+
+  public ExecutionContext getExecutionContext() {
+    return executionContext;
+  }
+
+  /**
+   * @param name the name of the data loader, as registered with the {@link
+   *             graphql.async.GraphQL.Builder}
+   * @return the data loader of this request by that name, or null if there is none
+   */
+  public <K, V> DataLoader<K, V> getDataLoader(String name) {
+    DataLoaderRegistry dataLoaderRegistry = executionContext instanceof AsyncExecutionContext ?
+      ((AsyncExecutionContext) executionContext).getDataLoaderRegistry() : null;
+    return dataLoaderRegistry != null ? dataLoaderRegistry.getDataLoader(name) : null;
+  }
+
+  /**
+   * @return the cancellation of this request, or null if it has none
+   */
+  public Cancellation getCancellation() {
+    return executionContext instanceof AsyncExecutionContext ?
+           ((AsyncExecutionContext) executionContext).getCancellation() : null;
+  }
+}
@@ -0,0 +1,195 @@
+package graphql.execution;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLException;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+
+/**
+ * The asynchronous counterpart of {@link Execution}, which runs the operation in an {@link
+ * AsyncExecutionContext}, so that the state of the request, including the {@link ExecutionPlan} of
+ * its document, is available to the {@link AsyncExecutionStrategy}.
+ *
+ * The requests of a batch share their data loaders and memo of fetched values, by running on
+ * executions that are derived from one another through {@link #withCancellation(Cancellation)}. A
+ * mutation starts a memo of its own, though, which the requests that are started after it share
+ * in turn, so that none of them is handed a value that was fetched before the mutation.
+ */
+public class AsyncExecution {
+
+  private final FieldCollector fieldCollector = new FieldCollector();
+  private final ExecutionStrategy queryStrategy;
+  private final ExecutionStrategy mutationStrategy;
+  private final DataLoaderRegistry dataLoaderRegistry;
+  private final Cancellation cancellation;
+  private final BulkheadRegistry bulkheadRegistry;
+  private final AtomicReference<FetchMemo> fetchMemo;
+  private final ExecutionInstrumentation instrumentation;
+
+  public AsyncExecution(ExecutionStrategy queryStrategy, ExecutionStrategy mutationStrategy,
+                        DataLoaderRegistry dataLoaderRegistry, Cancellation cancellation,
+                        BulkheadRegistry bulkheadRegistry, boolean memoizing,
+                        ExecutionInstrumentation instrumentation) {
+    this(queryStrategy, mutationStrategy, dataLoaderRegistry, cancellation, bulkheadRegistry,
+         memoizing ? new AtomicReference<>(new FetchMemo()) : null, instrumentation);
+  }
+
+  private AsyncExecution(ExecutionStrategy queryStrategy, ExecutionStrategy mutationStrategy,
+                         DataLoaderRegistry dataLoaderRegistry, Cancellation cancellation,
+                         BulkheadRegistry bulkheadRegistry,
+                         AtomicReference<FetchMemo> fetchMemo,
+                         ExecutionInstrumentation instrumentation) {
+    this.queryStrategy = queryStrategy;
+    this.mutationStrategy = mutationStrategy;
+    this.dataLoaderRegistry = dataLoaderRegistry;
+    this.cancellation = cancellation;
+    this.bulkheadRegistry = bulkheadRegistry;
+    this.fetchMemo = fetchMemo;
+    this.instrumentation = instrumentation;
+  }
+
+  /**
+   * @param cancellation the cancellation of another request, if any
+   * @return an execution of another request of the same batch as this one, which shares its data
+   * loaders and memo of fetched values, unless a mutation is started in between, but is cancelled
+   * on its own
+   */
+  public AsyncExecution withCancellation(Cancellation cancellation) {
+    return new AsyncExecution(queryStrategy, mutationStrategy, dataLoaderRegistry, cancellation,
+                              bulkheadRegistry, fetchMemo, instrumentation);
+  }
+
+  /**
+   * Start the requests of a batch, and hold off dispatching the keys that they load until all of
+   * them have been started, so that keys that several of them load go out in the same batch.
+   *
+   * @param start starts the requests on executions that are derived from this one
+   * @return whatever the given supplier returns
+   */
+  public <T> T startTogether(Supplier<T> start) {
+    if (dataLoaderRegistry == null) {
+      return start.get();
+    }
+    dataLoaderRegistry.enter();
+    try {
+      return start.get();
+    } finally {
+      dataLoaderRegistry.leave();
+    }
+  }
+
+  public ExecutionResult execute(GraphQLSchema graphQLSchema, Object root, Document document,
+                                 String operationName, Map<String, Object> args) {
+    return execute(graphQLSchema, root, new ExecutionPlan(document), operationName, args);
+  }
+
+  /**
+   * Execute the document of the given plan, and walk the plan while doing so.
+   *
+   * @param executionPlan the plan of a validated document, which may be cached
+   * @return an execution result whose data may be wrapped in a completable future
+   */
+  public ExecutionResult execute(GraphQLSchema graphQLSchema, Object root,
+                                 ExecutionPlan executionPlan, String operationName,
+                                 Map<String, Object> args) {
+    return execute(graphQLSchema, root, executionPlan, operationName, args, null);
+  }
+
+  /**
+   * Execute the document of the given plan, and tell the given listener about each of the top
+   * level fields of the operation, as soon as it's done.
+   *
+   * @param executionPlan     the plan of a validated document, which may be cached
+   * @param operationListener the listener of the top level fields, or null if there is none, which
+   *                          is told only if the operation is run by an {@link
+   *                          AsyncExecutionStrategy}
+   * @return an execution result whose data may be wrapped in a completable future
+   */
+  public ExecutionResult execute(GraphQLSchema graphQLSchema, Object root,
+                                 ExecutionPlan executionPlan, String operationName,
+                                 Map<String, Object> args,
+                                 OperationListener operationListener) {
+    ExecutionContextBuilder executionContextBuilder =
+      new ExecutionContextBuilder(new ValuesResolver());
+    ExecutionContext baseContext =
+      executionContextBuilder.build(graphQLSchema, queryStrategy, mutationStrategy, root,
+                                    executionPlan.getDocument(), operationName, args);
+    ExecutionContext executionContext = new AsyncExecutionContext(
+      baseContext, dataLoaderRegistry, executionPlan.forRequest(), cancellation, bulkheadRegistry,
+      fetchMemo(baseContext.getOperationDefinition()), instrumentation);
+    return executeOperation(executionContext, root, executionContext.getOperationDefinition(),
+                            operationListener);
+  }
+
+  /**
+   * @return the memo of fetched values to run the given operation with, or null if values are not
+   * memoized, which is a new one if the operation is a mutation, since values that were fetched
+   * before it may be stale after it
+   */
+  private FetchMemo fetchMemo(OperationDefinition operationDefinition) {
+    if (fetchMemo == null) {
+      return null;
+    }
+    if (operationDefinition.getOperation() == OperationDefinition.Operation.MUTATION) {
+      FetchMemo mutationMemo = new FetchMemo();
+      fetchMemo.set(mutationMemo);
+      return mutationMemo;
+    }
+    return fetchMemo.get();
+  }
+
+  private GraphQLObjectType getOperationRootType(GraphQLSchema graphQLSchema,
+                                                 OperationDefinition operationDefinition) {
+    if (operationDefinition.getOperation() == OperationDefinition.Operation.MUTATION) {
+      return graphQLSchema.getMutationType();
+    } else if (operationDefinition.getOperation() == OperationDefinition.Operation.QUERY) {
+      return graphQLSchema.getQueryType();
+    } else {
+      throw new GraphQLException();
+    }
+  }
+
+  private ExecutionResult executeOperation(ExecutionContext executionContext, Object root,
+                                           OperationDefinition operationDefinition,
+                                           OperationListener operationListener) {
+    GraphQLObjectType operationRootType =
+      getOperationRootType(executionContext.getGraphQLSchema(), operationDefinition);
+
+    ExecutionStrategy executionStrategy =
+      operationDefinition.getOperation() == OperationDefinition.Operation.MUTATION ?
+      mutationStrategy : queryStrategy;
+    ExecutionPlan executionPlan = ((AsyncExecutionContext) executionContext).getExecutionPlan();
+    if (executionStrategy instanceof AsyncExecutionStrategy) {
+      AsyncExecutionStrategy asyncExecutionStrategy = (AsyncExecutionStrategy) executionStrategy;
+      SelectionPlan selectionPlan = executionPlan.getOperationPlan(
+        operationDefinition, operation -> asyncExecutionStrategy.planSelection(
+          executionContext, operationRootType, collectFields(executionContext, operationRootType,
+                                                             operation)));
+      return asyncExecutionStrategy.execute(executionContext, operationRootType, root,
+                                            selectionPlan.fields, selectionPlan,
+                                            operationListener);
+    }
+    return executionStrategy.execute(executionContext, operationRootType, root,
+                                     collectFields(executionContext, operationRootType,
+                                                   operationDefinition));
+  }
+
+  private Map<String, List<Field>> collectFields(ExecutionContext executionContext,
+                                                 GraphQLObjectType operationRootType,
+                                                 OperationDefinition operationDefinition) {
+    Map<String, List<Field>> fields = new LinkedHashMap<>();
+    fieldCollector.collectFields(executionContext, operationRootType,
+                                 operationDefinition.getSelectionSet(), new ArrayList<>(), fields);
+    return fields;
+  }
+}
@@ -0,0 +1,122 @@
+package graphql.execution;
+
+import java.util.List;
+
+import graphql.GraphQLError;
+
+/**
+ * An {@link ExecutionContext} that also holds on to the state of a single asynchronous request,
+ * such as its {@link DataLoaderRegistry}, {@link ExecutionPlan}, {@link Cancellation} and memo of
+ * fetched values, and to the {@link BulkheadRegistry} of the GraphQL object that runs it.
+ *
+ * Errors are appended to an {@link ErrorLog}, without a lock, rather than to the copy-on-write
+ * list of the base context, which copies itself on every addition, and so falls over when many
+ * fields fail at once. They are handed out as read-only views of the errors so far, which do not
+ * copy them either.
+ */
+public class AsyncExecutionContext extends ExecutionContext {
+
+  private final DataLoaderRegistry dataLoaderRegistry;
+  private final ExecutionPlan executionPlan;
+  private final Cancellation cancellation;
+  private final BulkheadRegistry bulkheadRegistry;
+  private final FetchMemo fetchMemo;
+  private final ExecutionInstrumentation instrumentation;
+  private final ErrorLog errors = new ErrorLog();
+
+  /**
+   * @param executionContext   the execution context to extend
+   * @param dataLoaderRegistry the data loaders of the request, if any
+   * @param executionPlan      the plan of the document of the request, if any
+   * @param cancellation       the cancellation of the request, if any
+   * @param bulkheadRegistry   the bulkheads to route fields to, if any
+   * @param memoizing          whether the values that data fetchers fetch are memoized for the
+   *                           rest of the request
+   * @param instrumentation    the instrumentation to report the fields to, if any
+   */
+  public AsyncExecutionContext(ExecutionContext executionContext,
+                               DataLoaderRegistry dataLoaderRegistry,
+                               ExecutionPlan executionPlan, Cancellation cancellation,
+                               BulkheadRegistry bulkheadRegistry, boolean memoizing,
+                               ExecutionInstrumentation instrumentation) {
+    this(executionContext, dataLoaderRegistry, executionPlan, cancellation, bulkheadRegistry,
+         memoizing ? new FetchMemo() : null, instrumentation);
+  }
+
+  /**
+   * @param fetchMemo the memo of the values that data fetchers fetch, which may be shared with
+   *                  other requests of the same batch, or null if they are not memoized
+   */
+  AsyncExecutionContext(ExecutionContext executionContext, DataLoaderRegistry dataLoaderRegistry,
+                        ExecutionPlan executionPlan, Cancellation cancellation,
+                        BulkheadRegistry bulkheadRegistry, FetchMemo fetchMemo,
+                        ExecutionInstrumentation instrumentation) {
+    super(executionContext.getGraphQLSchema(), executionContext.getQueryStrategy(),
+          executionContext.getMutationStrategy(), executionContext.getFragmentsByName(),
+          executionContext.getOperationDefinition(), executionContext.getVariables(),
+          executionContext.getRoot());
+    this.dataLoaderRegistry = dataLoaderRegistry;
+    this.executionPlan = executionPlan;
+    this.cancellation = cancellation;
+    this.bulkheadRegistry = bulkheadRegistry;
+    this.fetchMemo = fetchMemo;
+    this.instrumentation = instrumentation;
+  }
+
+  /**
+   * @return the data loaders of the request, or null if there are none
+   */
+  public DataLoaderRegistry getDataLoaderRegistry() {
+    return dataLoaderRegistry;
+  }
+
+  /**
+   * @return the plan of the document of the request, or null if there is none
+   */
+  public ExecutionPlan getExecutionPlan() {
+    return executionPlan;
+  }
+
+  /**
+   * @return the cancellation of the request, or null if it has neither a deadline nor a way to be
+   * cancelled
+   */
+  public Cancellation getCancellation() {
+    return cancellation;
+  }
+
+  /**
+   * @return the bulkheads to route fields to, or null if there are none
+   */
+  public BulkheadRegistry getBulkheadRegistry() {
+    return bulkheadRegistry;
+  }
+
+  /**
+   * @return the instrumentation to report the fields to, or null if there is none
+   */
+  public ExecutionInstrumentation getInstrumentation() {
+    return instrumentation;
+  }
+
+  /**
+   * @return the memo of the values that data fetchers fetched, or null if they are not memoized
+   */
+  FetchMemo getFetchMemo() {
+    return fetchMemo;
+  }
+
+  @Override
+  public void addError(GraphQLError error) {
+    errors.add(error);
+  }
+
+  /**
+   * @return a read-only view of the errors that have been added so far, which does not see those
+   * that are added later
+   */
+  @Override
+  public List<GraphQLError> getErrors() {
+    return errors.view();
+  }
+}
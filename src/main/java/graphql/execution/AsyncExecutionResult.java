@@ -0,0 +1,37 @@
+package graphql.execution;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import graphql.ExecutionResultImpl;
+import graphql.GraphQLError;
+
+/**
+ * An execution result whose errors are those of its {@link ExecutionContext}, as of the time they
+ * are asked for, rather than as of the time the result was made.
+ *
+ * The data of an asynchronous result is still on its way when the result is made, and so are the
+ * errors of its fields. Reading the errors through to the context lets them be collected once,
+ * after the data is complete, instead of being copied into the result of every object.
+ */
+class AsyncExecutionResult extends ExecutionResultImpl {
+
+  private final ExecutionContext executionContext;
+
+  AsyncExecutionResult(Object data, ExecutionContext executionContext) {
+    super(data, null);
+    this.executionContext = executionContext;
+  }
+
+  @Override
+  public void addErrors(List<? extends GraphQLError> errors) {
+    for (GraphQLError error : errors) {
+      executionContext.addError(error);
+    }
+  }
+
+  @Override
+  public List<GraphQLError> getErrors() {
+    return new ArrayList<>(executionContext.getErrors());
+  }
+}
@@ -1,26 +1,47 @@
 package graphql.execution;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import graphql.ExceptionWhileDataFetching;
 import graphql.ExecutionResult;
 import graphql.ExecutionResultImpl;
+import graphql.GraphQLException;
 import graphql.language.Field;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLEnumType;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLInterfaceType;
 import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLNonNull;
 import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLScalarType;
 import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLUnionType;
+import graphql.schema.PropertyDataFetcher;
+import graphql.schema.StaticDataFetcher;
 
-import static graphql.async.ExecutionFuture.array;
-import static graphql.async.ExecutionFuture.completable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * <p>AsyncExecutionStrategy implements the {@link ExecutionStrategy} in a non-blocking manner.</p>
@@ -36,12 +57,44 @@ import static graphql.async.ExecutionFuture.completable;
  * {@link ExecutorServiceExecutionStrategy}, and if anything, it should have a higher setting for
  * {@code maximumPoolSize}, given the asynchronous nature of the execution.
  *
+ * An {@link #adaptive()} strategy resolves fields on the calling thread, and only hands those
+ * fields whose {@link AsyncDataFetcher} is marked as async over to the {@link ExecutorService}.
+ *
+ * A {@link #mutation()} strategy resolves the top level fields of a mutation one after the other,
+ * but their sub-selections in parallel.
+ *
+ * The values of the futures that data fetchers return are completed on the executor service, or,
+ * for an adaptive strategy, on the thread that completes the future, see {@link
+ * #inlineCompletion(boolean)}. Fields may be fetched on one executor service, and completed on
+ * another, so that blocking data fetchers do not hold up the assembly of results that are ready,
+ * see {@link #parallel(ExecutorService, ExecutorService)}. On Java 21 and later, each field may be
+ * fetched on a virtual thread of its own, see {@link #virtualThreadPerField()}.
+ *
  * See {@code graphql.execution.AsyncExecutionStrategyTest} for example usage.
  */
 public class AsyncExecutionStrategy extends ExecutionStrategy {
 
+  private static final Logger log = LoggerFactory.getLogger(AsyncExecutionStrategy.class);
+
+  /**
+   * Whether reactive streams, an optional dependency, is on the class path, in which case data
+   * fetchers of list fields may return a {@link org.reactivestreams.Publisher}.
+   */
+  private static final boolean reactiveStreams = isPresent("org.reactivestreams.Publisher");
+
+  private static final Runnable NOTHING = () -> {
+  };
+
   protected boolean serial;
+  protected boolean inline;
   protected ExecutorService executorService;
+  protected ExecutorService completionExecutorService;
+  protected boolean inlineCompletion;
+  protected AsyncExecutionStrategy subSelectionStrategy;
+  protected boolean ownsExecutorService;
+  protected int inlineListThreshold = 1024;
+  protected int listChunkSize = 256;
+  protected int maxConcurrentListChunks = Runtime.getRuntime().availableProcessors();
 
   public static AsyncExecutionStrategy serial() {
     return new AsyncExecutionStrategy(true);
@@ -59,19 +112,208 @@ public class AsyncExecutionStrategy extends ExecutionStrategy {
     return new AsyncExecutionStrategy(false, executorService);
   }
 
+  /**
+   * Resolve each field only after the previous one is done, fetching them on one executor service,
+   * and completing the futures that they return on another.
+   *
+   * @param fetchExecutorService      the executor service to invoke data fetchers on
+   * @param completionExecutorService the executor service to complete fetched futures on
+   * @return a serial execution strategy with split executors
+   */
+  public static AsyncExecutionStrategy serial(ExecutorService fetchExecutorService,
+                                              ExecutorService completionExecutorService) {
+    return new AsyncExecutionStrategy(true, false, fetchExecutorService,
+                                      completionExecutorService);
+  }
+
+  /**
+   * Resolve fields in parallel, fetching them on one executor service, and completing the futures
+   * that they return on another. Blocking data fetchers, say those of JDBC queries, then take up
+   * the threads of the former, while the latter assembles their results.
+   *
+   * @param fetchExecutorService      the executor service to invoke data fetchers on
+   * @param completionExecutorService the executor service to complete fetched futures on
+   * @return a parallel execution strategy with split executors
+   */
+  public static AsyncExecutionStrategy parallel(ExecutorService fetchExecutorService,
+                                                ExecutorService completionExecutorService) {
+    return new AsyncExecutionStrategy(false, false, fetchExecutorService,
+                                      completionExecutorService);
+  }
+
+  /**
+   * Resolve fields in parallel, each on a virtual thread of its own, which lets data fetchers block
+   * without taking up a platform thread. Fetched futures are completed on virtual threads as well,
+   * rather than on a pool that is shared with unrelated code.
+   *
+   * The strategy owns the executor of its virtual threads, which is closed by {@link #shutdown()}.
+   *
+   * @return a parallel execution strategy that starts a virtual thread per field
+   * @throws UnsupportedOperationException if the runtime is older than Java 21
+   */
+  public static AsyncExecutionStrategy virtualThreadPerField() {
+    return virtualThreadPerField(null);
+  }
+
+  /**
+   * Resolve fields in parallel, each on a virtual thread of its own, which lets data fetchers block
+   * without taking up a platform thread, and complete fetched futures on the given executor
+   * service.
+   *
+   * The strategy owns the executor of its virtual threads, which is closed by {@link #shutdown()},
+   * but not the given executor service.
+   *
+   * @param completionExecutorService the executor service to complete fetched futures on, or null
+   *                                  to complete them on virtual threads
+   * @return a parallel execution strategy that starts a virtual thread per field
+   * @throws UnsupportedOperationException if the runtime is older than Java 21
+   */
+  public static AsyncExecutionStrategy virtualThreadPerField(
+    ExecutorService completionExecutorService) {
+    AsyncExecutionStrategy strategy =
+      parallel(newVirtualThreadPerTaskExecutor(), completionExecutorService);
+    strategy.ownsExecutorService = true;
+    return strategy;
+  }
+
+  /**
+   * Resolve the top level fields one after the other, as the specification requires of mutations,
+   * but resolve the sub-selections of each of them in parallel, whatever the query strategy is.
+   *
+   * @return a mutation execution strategy that uses the common fork join pool
+   */
+  public static AsyncExecutionStrategy mutation() {
+    return mutation(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Resolve the top level fields one after the other, as the specification requires of mutations,
+   * but resolve the sub-selections of each of them in parallel, whatever the query strategy is.
+   *
+   * @param executorService the executor service to resolve fields on
+   * @return a mutation execution strategy
+   */
+  public static AsyncExecutionStrategy mutation(ExecutorService executorService) {
+    AsyncExecutionStrategy strategy = new AsyncExecutionStrategy(true, executorService);
+    // Resolve sub-selections in parallel all the way down, rather than fall back on the query
+    // strategy below the first level
+    AsyncExecutionStrategy subSelectionStrategy = parallel(executorService);
+    subSelectionStrategy.subSelectionStrategy = subSelectionStrategy;
+    strategy.subSelectionStrategy = subSelectionStrategy;
+    return strategy;
+  }
+
+  /**
+   * Resolve fields in parallel, but do so on the calling thread, unless their data fetcher is
+   * marked as async.
+   *
+   * @return an adaptive execution strategy that uses the common fork join pool
+   */
+  public static AsyncExecutionStrategy adaptive() {
+    return adaptive(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Resolve fields in parallel, but do so on the calling thread, unless their data fetcher is
+   * marked as async.
+   *
+   * @param executorService the executor service to resolve async fields on
+   * @return an adaptive execution strategy
+   */
+  public static AsyncExecutionStrategy adaptive(ExecutorService executorService) {
+    return new AsyncExecutionStrategy(false, true, executorService);
+  }
+
   private AsyncExecutionStrategy(boolean serial) {
     this(serial, ForkJoinPool.commonPool());
   }
 
   protected AsyncExecutionStrategy(boolean serial, ExecutorService executorService) {
+    this(serial, false, executorService);
+  }
+
+  protected AsyncExecutionStrategy(boolean serial, boolean inline,
+                                   ExecutorService executorService) {
+    this(serial, inline, executorService, null);
+  }
+
+  /**
+   * @param completionExecutorService the executor service to complete fetched futures on, or null
+   *                                  to complete them on the executor service, unless this strategy
+   *                                  is inline
+   */
+  protected AsyncExecutionStrategy(boolean serial, boolean inline,
+                                   ExecutorService executorService,
+                                   ExecutorService completionExecutorService) {
     this.serial = serial;
+    this.inline = inline;
     this.executorService = executorService;
+    this.completionExecutorService = completionExecutorService;
   }
 
   public boolean isSerial() {
     return serial;
   }
 
+  public boolean isInline() {
+    return inline;
+  }
+
+  /**
+   * Complete the values of the futures that data fetchers return on the thread that completes them,
+   * rather than hop over to the executor service, which saves a hand-off per future, but lets the
+   * sub-selections of the field run on whatever thread that is, be it that of a data loader or of
+   * an HTTP client. Adaptive strategies always complete inline, and a completion executor service,
+   * if any, takes precedence.
+   *
+   * @param inlineCompletion whether to complete fetched futures on the thread that completes them
+   * @return this strategy
+   */
+  public AsyncExecutionStrategy inlineCompletion(boolean inlineCompletion) {
+    this.inlineCompletion = inlineCompletion;
+    return this;
+  }
+
+  /**
+   * Set how the elements of lists are completed. Lists up to the given threshold are completed on
+   * the thread that fetched them, while longer lists are split into chunks, a limited number of
+   * which are completed at a time, on the executor service.
+   *
+   * @param inlineListThreshold     the length up to which lists are completed inline
+   * @param listChunkSize           the number of elements per chunk of a longer list
+   * @param maxConcurrentListChunks the number of chunks of a list that are completed at a time
+   * @return this strategy
+   */
+  public AsyncExecutionStrategy listCompletion(int inlineListThreshold, int listChunkSize,
+                                               int maxConcurrentListChunks) {
+    assert inlineListThreshold >= 0 : "Inline list threshold must not be negative";
+    assert listChunkSize > 0 : "List chunk size must be positive";
+    assert maxConcurrentListChunks > 0 : "Maximum concurrent list chunks must be positive";
+    this.inlineListThreshold = inlineListThreshold;
+    this.listChunkSize = listChunkSize;
+    this.maxConcurrentListChunks = maxConcurrentListChunks;
+    return this;
+  }
+
+  /**
+   * Shut down the executor service of this strategy, if the strategy started it, as {@link
+   * #virtualThreadPerField()} does, and leave it be otherwise. Fields that are in progress are
+   * still resolved, but the strategy can't be used afterwards.
+   */
+  public void shutdown() {
+    if (ownsExecutorService) {
+      executorService.shutdown();
+    }
+  }
+
+  /**
+   * @return the strategy that resolves the sub-selections of the fields of this strategy, or null
+   * if that is up to the query strategy of the execution context
+   */
+  public AsyncExecutionStrategy getSubSelectionStrategy() {
+    return subSelectionStrategy;
+  }
+
   /**
    * Resolve the given fields in parallel and return an execution result without blocking.
    *
@@ -81,127 +323,756 @@ public class AsyncExecutionStrategy extends ExecutionStrategy {
   public ExecutionResult execute(final ExecutionContext executionContext,
                                  final GraphQLObjectType parentType,
                                  final Object source, final Map<String, List<Field>> fields) {
+    return execute(executionContext, parentType, source, fields, null);
+  }
+
+  ExecutionResult execute(final ExecutionContext executionContext,
+                          final GraphQLObjectType parentType, final Object source,
+                          final Map<String, List<Field>> fields,
+                          final SelectionPlan selectionPlan) {
+    return execute(executionContext, parentType, source, fields, selectionPlan, null);
+  }
+
+  /**
+   * Resolve the given fields, along the lines of the given plan, if any.
+   *
+   * @param selectionPlan     the plan of the fields, or null if they have not been planned
+   * @param operationListener is told about each of the fields as soon as it's done, if given
+   * @return an execution result whose data is wrapped in a completable future.
+   */
+  ExecutionResult execute(final ExecutionContext executionContext,
+                          final GraphQLObjectType parentType, final Object source,
+                          final Map<String, List<Field>> fields,
+                          final SelectionPlan selectionPlan,
+                          final OperationListener operationListener) {
     if (executorService == null) {
       return new SimpleExecutionStrategy().execute(executionContext, parentType, source, fields);
     }
 
-    Map<String, CompletableFuture<ExecutionResult>> fieldFutures = new LinkedHashMap<>();
-    Set<String> fieldNames = fields.keySet();
+    // Hold off the dispatch of data loaders until all of the fields are on their way
+    DataLoaderRegistry dataLoaderRegistry = dataLoaderRegistry(executionContext);
+    if (dataLoaderRegistry != null) {
+      dataLoaderRegistry.enter();
+    }
 
-    // Create tasks to resolve each of the fields
-    CompletableFuture<ExecutionResult> previousField = CompletableFuture.completedFuture(null);
-    for (String fieldName : fieldNames) {
-      CompletableFuture<ExecutionResult> fieldFuture;
+    // Collect the data of the fields into their slots, in the order of their names, which are
+    // shared by all of the objects of the same selection set, if it's planned
+    Shape shape = selectionPlan != null ? selectionPlan.shape : new Shape(fields.keySet());
+    ExecutionInstrumentation instrumentation = instrumentation(executionContext);
+    FieldTimings timings = instrumentation != null ?
+                           new FieldTimings(instrumentation, parentType, shape.size()) : null;
+    Cancellation cancellation = cancellation(executionContext);
+    FieldResults results;
+    if (operationListener != null) {
+      results = new FieldResults(shape,
+                                 (value, index) -> operationListener.onField(
+                                   index, shape.keys[index], value, executionContext.getErrors()),
+                                 operationListener.retainsData(), timings, cancellation != null);
+    } else {
+      results = new FieldResults(shape, null, true, timings, cancellation != null);
+    }
+    if (cancellation != null) {
+      // Set the fields whose data fetchers have not returned yet as soon as the request is cancelled
+      List<List<Field>> fieldLists = new ArrayList<>(fields.values());
+      cancellation.track(results, index -> setCancelled(executionContext, cancellation,
+                                                        fieldLists.get(index), results, index));
+    }
+    try {
       if (serial) {
-        // Block the current field until the previous field is done
-        fieldFuture = previousField.thenCompose(result -> CompletableFuture.supplyAsync(
-          () -> resolveField(executionContext, parentType, source, fields.get(fieldName)),
-          executorService
-        ));
-        previousField = fieldFuture;
+        // Resolve each field only after the previous field, along with its sub-selections, is done
+        resolveFieldsSerially(executionContext, parentType, source,
+                              new ArrayList<>(fields.values()), selectionPlan, results, 0);
       } else {
         // Resolve every field in parallel, independent of each other
-        fieldFuture = CompletableFuture.supplyAsync(
-          () -> resolveField(executionContext, parentType, source, fields.get(fieldName)),
-          executorService
-        );
-      }
-      fieldFutures.put(fieldName, fieldFuture);
-    }
-
-
-    // Prepare a completable for the map of field results
-    CompletableFuture<Map<String, Object>> resultsFuture = CompletableFuture
-      // First, wait for all the tasks above to complete
-      .allOf(array(fieldFutures.values()))
-      .exceptionally(throwable -> {
-        executionContext.addError(new ExceptionWhileDataFetching(throwable));
-        return null;
-      })
-      // Then, wait for each of the field results to complete
-      .thenComposeAsync((resolveDone) -> {
-        Map<String, ExecutionResult> fieldResults = new LinkedHashMap<>();
-        return CompletableFuture
-          .allOf(array(
-            fieldNames.stream()
-              .map(fieldName -> {
-                final ExecutionResult fieldResult = fieldFutures.get(fieldName).join();
-                fieldResults.put(fieldName, fieldResult);
-                return completable(fieldResult, executorService);
-              })
-              .collect(Collectors.<CompletableFuture<ExecutionResult>>toList())
-          ))
-          .exceptionally(throwable -> {
-            executionContext.addError(new ExceptionWhileDataFetching(throwable));
-            return null;
-          })
-          .thenApplyAsync(resultsDone -> fieldResults, executorService);
-      }, executorService)
-      // Last, collect the results of the field into a map
-      .exceptionally(throwable -> {
-        executionContext.addError(new ExceptionWhileDataFetching(throwable));
-        return new LinkedHashMap<>();
-      })
-      .thenApplyAsync(fieldResults -> {
-        Map<String, Object> results = new LinkedHashMap<>();
-        for (String fieldName : fieldResults.keySet()) {
-          ExecutionResult fieldResult = fieldResults.get(fieldName);
-          Object fieldData = fieldResult != null ? fieldResult.getData() : null;
-          results.put(fieldName, fieldData);
+        int index = 0;
+        for (List<Field> fieldList : fields.values()) {
+          resolveField(executionContext, parentType, source, fieldList,
+                       fieldPlan(selectionPlan, index), results, index++, null);
         }
-        return results;
-      }, executorService);
+      }
+    } finally {
+      if (dataLoaderRegistry != null) {
+        dataLoaderRegistry.leave();
+      }
+    }
+
+    return new AsyncExecutionResult(results, executionContext);
+  }
 
-    return new ExecutionResultImpl(resultsFuture, executionContext.getErrors());
+  private void resolveFieldsSerially(final ExecutionContext executionContext,
+                                     final GraphQLObjectType parentType, final Object source,
+                                     final List<List<Field>> fieldLists,
+                                     final SelectionPlan selectionPlan,
+                                     final FieldResults results, final int index) {
+    if (index < fieldLists.size()) {
+      resolveField(executionContext, parentType, source, fieldLists.get(index),
+                   fieldPlan(selectionPlan, index), results, index,
+                   () -> resolveFieldsSerially(executionContext, parentType, source, fieldLists,
+                                               selectionPlan, results, index + 1));
+    }
+  }
+
+  /**
+   * Resolve the given field in the {@link Bulkhead} that it's routed to, if any, or else either on
+   * the {@link #executorService} or on the calling thread, depending on whether its data fetcher
+   * {@link #isAsync(DataFetcher) is async}. Once its value is
+   * completed, including that of its sub-selections, if any, it's set in the given results, without
+   * an intermediate future.
+   *
+   * @param fieldPlan the plan of the field, or null if it has not been planned
+   * @param results   the results of the object that the field belongs to
+   * @param index     the index of the field in those results
+   * @param next      what to do after the value of the field is set, if anything
+   */
+  private void resolveField(final ExecutionContext executionContext,
+                            final GraphQLObjectType parentType, final Object source,
+                            final List<Field> fields, FieldPlan fieldPlan,
+                            final FieldResults results, final int index, final Runnable next) {
+    DataLoaderRegistry dataLoaderRegistry = dataLoaderRegistry(executionContext);
+    if (dataLoaderRegistry != null) {
+      dataLoaderRegistry.enter();
+    }
+    final FieldTimings timings = results.timings;
+    try {
+      final FieldPlan plan = fieldPlan != null ? fieldPlan : new FieldPlan(
+        getFieldDef(executionContext.getGraphQLSchema(), parentType, fields.get(0)), null);
+      if (timings != null) {
+        timings.enqueue(index, plan.fieldDef);
+      }
+      // Resolve the field, and release its place in its bulkhead, if any, once it's fetched
+      Consumer<Runnable> resolve = release -> {
+        try {
+          Cancellation cancellation = cancellation(executionContext);
+          if (cancellation != null && cancellation.isCancelled()) {
+            throw new CancellationException();
+          }
+          if (timings != null) {
+            timings.start(index);
+          }
+          setData(executionContext,
+                  fetchAndComplete(executionContext, parentType, source, fields, plan, results,
+                                   index, release),
+                  fields, results, index, next);
+        } catch (RuntimeException e) {
+          release.run();
+          setError(executionContext, e, fields, results, index, next);
+        } finally {
+          if (dataLoaderRegistry != null) {
+            dataLoaderRegistry.leave();
+          }
+        }
+      };
+      Bulkhead bulkhead = bulkhead(executionContext, parentType, plan.fieldDef);
+      if (bulkhead != null) {
+        bulkhead.execute(resolve, e -> {
+          // The field was queued, and then rejected by the executor service of the bulkhead
+          setError(executionContext, e, fields, results, index, next);
+          if (dataLoaderRegistry != null) {
+            dataLoaderRegistry.leave();
+          }
+        });
+      } else if (isAsync(plan.fieldDef.getDataFetcher())) {
+        executorService.execute(() -> resolve.accept(NOTHING));
+      } else {
+        resolve.accept(NOTHING);
+      }
+    } catch (RuntimeException e) {
+      // The field is unknown, or the executor service or bulkhead rejected it
+      setError(executionContext, e, fields, results, index, next);
+      if (dataLoaderRegistry != null) {
+        dataLoaderRegistry.leave();
+      }
+    }
+  }
+
+  @Override
+  protected ExecutionResult resolveField(ExecutionContext executionContext,
+                                         GraphQLObjectType parentType, Object source,
+                                         List<Field> fields) {
+    return fetchAndComplete(executionContext, parentType, source, fields, new FieldPlan(
+      getFieldDef(executionContext.getGraphQLSchema(), parentType, fields.get(0)), null), null, 0,
+                            NOTHING);
+  }
+
+  /**
+   * Fetch the value of the given field, through an {@link AsyncDataFetchingEnvironment}, and then
+   * complete it.
+   *
+   * @param fieldPlan the plan of the field
+   * @param results   the results of the object that the field belongs to, if any
+   * @param index     the index of the field in those results
+   * @param fetched   what to do once the data fetcher, and the future that it returned, if any, is
+   *                  done, before the value is completed
+   * @return an execution result whose data may be wrapped in a completable future.
+   */
+  @SuppressWarnings("unchecked")
+  private ExecutionResult fetchAndComplete(ExecutionContext executionContext,
+                                           GraphQLObjectType parentType, Object source,
+                                           List<Field> fields, FieldPlan fieldPlan,
+                                           FieldResults results, int index, Runnable fetched) {
+    GraphQLFieldDefinition fieldDef = fieldPlan.fieldDef;
+    FieldTimings timings = results != null ? results.timings : null;
+    Map<String, Object> argumentValues = fieldPlan.copyArgumentValues();
+    if (argumentValues == null) {
+      argumentValues = valuesResolver.getArgumentValues(
+        fieldDef.getArguments(), fields.get(0).getArguments(), executionContext.getVariables());
+    }
+    DataFetchingEnvironment environment = new AsyncDataFetchingEnvironment(
+      source, argumentValues, executionContext.getRoot(), fields, fieldDef.getType(), parentType,
+      executionContext);
+
+    Object resolvedValue = null;
+    try {
+      FetchMemo fetchMemo = fetchMemo(executionContext, parentType, fieldDef);
+      resolvedValue = fetchMemo != null ?
+                      fetchMemo.fetch(fieldDef, environment) :
+                      fieldDef.getDataFetcher().get(environment);
+    } catch (Exception e) {
+      log.warn("Exception while fetching data", e);
+      executionContext.addError(new ExceptionWhileDataFetching(e));
+      if (timings != null) {
+        timings.fail(index);
+      }
+    }
+    Cancellation cancellation = cancellation(executionContext);
+    if (cancellation != null) {
+      if (results != null) {
+        results.fetched(index);
+      }
+      if (resolvedValue instanceof CompletableFuture) {
+        cancellation.track((CompletableFuture<?>) resolvedValue);
+      }
+    }
+    if (timings != null) {
+      if (resolvedValue instanceof CompletableFuture) {
+        // Complete the value only once the end of the fetch is recorded
+        resolvedValue = ((CompletableFuture<Object>) resolvedValue).whenComplete(
+          (fetchedValue, throwable) -> timings.fetch(index));
+      } else {
+        timings.fetch(index);
+      }
+    }
+    if (fetched != NOTHING) {
+      if (resolvedValue instanceof CompletableFuture) {
+        resolvedValue = ((CompletableFuture<Object>) resolvedValue).whenComplete(
+          (fetchedValue, throwable) -> fetched.run());
+      } else {
+        fetched.run();
+      }
+    }
+
+    return completeValue(executionContext, fieldDef.getType(), fields, resolvedValue, fieldPlan);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void setData(final ExecutionContext executionContext,
+                              final ExecutionResult fieldResult, final List<Field> fields,
+                              final FieldResults results, final int index, final Runnable next) {
+    Object data = fieldResult != null ? fieldResult.getData() : null;
+    if (data instanceof CompletableFuture) {
+      ((CompletableFuture<Object>) data).whenComplete((completedData, throwable) -> {
+        if (throwable != null) {
+          setError(executionContext, throwable, fields, results, index, next);
+        } else {
+          if (results.claim(index)) {
+            results.set(index, completedData);
+          }
+          if (next != null) {
+            next.run();
+          }
+        }
+      });
+    } else {
+      if (results.claim(index)) {
+        results.set(index, data);
+      }
+      if (next != null) {
+        next.run();
+      }
+    }
+  }
+
+  private static void setError(final ExecutionContext executionContext, Throwable throwable,
+                               final List<Field> fields, final FieldResults results,
+                               final int index, final Runnable next) {
+    if (!results.claim(index)) {
+      // The field was set when its request was cancelled
+      if (next != null) {
+        next.run();
+      }
+      return;
+    }
+    if (throwable instanceof CompletionException && throwable.getCause() != null) {
+      throwable = throwable.getCause();
+    }
+    if (results.timings != null) {
+      results.timings.fail(index);
+    }
+    Cancellation cancellation = cancellation(executionContext);
+    if (throwable instanceof CancellationException && cancellation != null &&
+        cancellation.isCancelled()) {
+      executionContext.addError(new CancellationError(fields.get(0), cancellation.getReason()));
+    } else {
+      executionContext.addError(new ExceptionWhileDataFetching(throwable));
+    }
+    results.set(index, null);
+    if (next != null) {
+      next.run();
+    }
+  }
+
+  /**
+   * Set a field, which was claimed when its request was cancelled, to null, with a {@link
+   * CancellationError}.
+   */
+  private static void setCancelled(final ExecutionContext executionContext,
+                                   final Cancellation cancellation, final List<Field> fields,
+                                   final FieldResults results, final int index) {
+    if (results.timings != null) {
+      results.timings.fail(index);
+    }
+    executionContext.addError(new CancellationError(fields.get(0), cancellation.getReason()));
+    results.set(index, null);
+  }
+
+  /**
+   * Decide whether the given data fetcher is to be invoked on the {@link #executorService}. If it is
+   * an {@link AsyncDataFetcher}, then it gets to decide, otherwise it's async unless this strategy
+   * is {@link #isInline() inline}.
+   *
+   * @param dataFetcher the data fetcher of the field being resolved
+   * @return true if the data fetcher should be invoked on the executor service
+   */
+  protected boolean isAsync(DataFetcher dataFetcher) {
+    if (dataFetcher instanceof AsyncDataFetcher) {
+      return ((AsyncDataFetcher) dataFetcher).isAsync();
+    }
+    return !inline;
   }
 
   /**
    * If the result that is returned by the {@link graphql.schema.DataFetcher} is a {@link
-   * CompletableFuture}, then wait for it to complete, prior to calling the super method.
+   * CompletableFuture}, then chain the completion of its value to it, as opposed to waiting for it.
+   * Similarly, a non-null type is checked for null only after its value is done.
    *
-   * @return the completed execution result
+   * @return an execution result whose data may be wrapped in a completable future.
    */
   @Override
   protected ExecutionResult completeValue(final ExecutionContext executionContext,
                                           final GraphQLType fieldType,
                                           final List<Field> fields, Object result) {
-    if (!(result instanceof CompletableFuture)) {
-      return super.completeValue(executionContext, fieldType, fields, result);
+    return completeValue(executionContext, fieldType, fields, result, null);
+  }
+
+  @SuppressWarnings("unchecked")
+  private ExecutionResult completeValue(final ExecutionContext executionContext,
+                                        final GraphQLType fieldType, final List<Field> fields,
+                                        Object result, final FieldPlan fieldPlan) {
+    if (result instanceof CompletableFuture) {
+      DataLoaderRegistry dataLoaderRegistry = dataLoaderRegistry(executionContext);
+      Function<Object, CompletionStage<Object>> complete = completedResult -> {
+        if (dataLoaderRegistry != null) {
+          dataLoaderRegistry.enter();
+        }
+        try {
+          return dataOf(completeValue(executionContext, fieldType, fields, completedResult,
+                                      fieldPlan));
+        } finally {
+          if (dataLoaderRegistry != null) {
+            dataLoaderRegistry.leave();
+          }
+        }
+      };
+      CompletableFuture<Object> future = (CompletableFuture<Object>) result;
+      ExecutorService completionExecutorService = completionExecutorService();
+      return new ExecutionResultImpl(
+        completionExecutorService != null ?
+        future.thenComposeAsync(complete, completionExecutor(completionExecutorService,
+                                                             dataLoaderRegistry)) :
+        future.thenCompose(complete), null);
+    }
+    if (fieldType instanceof GraphQLNonNull) {
+      ExecutionResult completed = completeValue(executionContext,
+                                                ((GraphQLNonNull) fieldType).getWrappedType(),
+                                                fields, result, fieldPlan);
+      if (completed == null) {
+        throw new GraphQLException("Cannot return null for non-nullable type: " + fields);
+      }
+      if (completed.getData() instanceof CompletableFuture) {
+        ((ExecutionResultImpl) completed).setData(
+          dataOf(completed).thenApply(completedData -> {
+            if (completedData == null) {
+              throw new GraphQLException("Cannot return null for non-nullable type: " + fields);
+            }
+            return completedData;
+          }));
+      }
+      return completed;
+    }
+    if (result == null) {
+      return null;
     }
-    ExecutionStrategy executionStrategy = this;
-    return ((CompletableFuture<ExecutionResult>) result)
-      .thenComposeAsync(
-        (Function<Object, CompletableFuture<ExecutionResult>>)
-          completedResult -> completable(
-            executionStrategy.completeValue(executionContext, fieldType, fields, completedResult),
-            executorService), executorService)
-      .exceptionally(throwable -> {
-        executionContext.addError(new ExceptionWhileDataFetching(throwable));
-        return null;
-      })
-      .join();
+    if (fieldType instanceof GraphQLList) {
+      if (isSource(result)) {
+        return completeValueForSource(executionContext, (GraphQLList) fieldType, fields, result,
+                                      fieldPlan);
+      }
+      if (result.getClass().isArray()) {
+        result = Arrays.asList((Object[]) result);
+      }
+      return completeValueForList(executionContext, (GraphQLList) fieldType, fields,
+                                  (Iterable<Object>) result, fieldPlan);
+    }
+    if (fieldType instanceof GraphQLScalarType) {
+      return completeValueForScalar((GraphQLScalarType) fieldType, result);
+    }
+    if (fieldType instanceof GraphQLEnumType) {
+      return completeValueForEnum((GraphQLEnumType) fieldType, result);
+    }
+
+    GraphQLObjectType resolvedType;
+    if (fieldType instanceof GraphQLInterfaceType) {
+      resolvedType = resolveType((GraphQLInterfaceType) fieldType, result);
+    } else if (fieldType instanceof GraphQLUnionType) {
+      resolvedType = resolveType((GraphQLUnionType) fieldType, result);
+    } else {
+      resolvedType = (GraphQLObjectType) fieldType;
+    }
+
+    // Walk the plan of the sub-selection, if the strategy that resolves it knows how to
+    ExecutionStrategy queryStrategy = subSelectionStrategy != null ?
+      subSelectionStrategy : executionContext.getQueryStrategy();
+    if (fieldPlan != null && queryStrategy instanceof AsyncExecutionStrategy) {
+      SelectionPlan selectionPlan = fieldPlan.getSelectionPlan(
+        resolvedType, type -> planSelection(executionContext, type,
+                                            collectSubFields(executionContext, type, fields)));
+      return ((AsyncExecutionStrategy) queryStrategy).execute(
+        executionContext, resolvedType, result, selectionPlan.fields, selectionPlan);
+    }
+    return queryStrategy.execute(executionContext, resolvedType, result,
+                                 collectSubFields(executionContext, resolvedType, fields));
   }
 
   /**
    * If the result is a list, then it's elements can now potentially be a {@link CompletableFuture}.
-   * To reduce the number of tasks in progress, it behooves us to wait for all those completable
-   * elements to wrap up.
+   * Rather than waiting for each of them in turn, the data of the list is wrapped in a completable
+   * future that is done when all of those elements are done. Lists that are longer than the {@link
+   * #listCompletion(int, int, int) inline list threshold} are completed in chunks, in parallel.
    *
-   * @return the completed execution result
+   * @return an execution result whose data may be wrapped in a completable future.
    */
   @Override
   protected ExecutionResult completeValueForList(ExecutionContext executionContext,
                                                  GraphQLList fieldType,
                                                  List<Field> fields, Iterable<Object> result) {
-    ExecutionResult executionResult =
-      super.completeValueForList(executionContext, fieldType, fields, result);
-    List<Object> completableResults = (List<Object>) executionResult.getData();
-    List<Object> completedResults = new ArrayList<>();
-    completableResults.forEach(completedResult -> {
-      completedResults.add((completedResult instanceof CompletableFuture) ?
-                           ((CompletableFuture) completedResult).join() : completedResult);
-    });
-    ((ExecutionResultImpl) executionResult).setData(completedResults);
-    return executionResult;
+    return completeValueForList(executionContext, fieldType, fields, result, null);
+  }
+
+  /**
+   * Complete the elements of a list one by one, as they arrive from an {@link Iterator}, a {@link
+   * Stream}, or a reactive streams {@link org.reactivestreams.Publisher}, so that the source is
+   * never buffered whole. The elements of a publisher are requested a {@link
+   * #listCompletion(int, int, int) list chunk} at a time, as those before them are done.
+   *
+   * @return an execution result whose data is wrapped in a completable future.
+   */
+  @SuppressWarnings("unchecked")
+  private ExecutionResult completeValueForSource(ExecutionContext executionContext,
+                                                 GraphQLList fieldType, List<Field> fields,
+                                                 Object source, FieldPlan fieldPlan) {
+    DataLoaderRegistry dataLoaderRegistry = dataLoaderRegistry(executionContext);
+    Cancellation cancellation = cancellation(executionContext);
+    Function<Object, Object> completeItem = item -> {
+      if (dataLoaderRegistry != null) {
+        dataLoaderRegistry.enter();
+      }
+      try {
+        ExecutionResult completedValue =
+          completeValue(executionContext, fieldType.getWrappedType(), fields, item, fieldPlan);
+        return completedValue != null ? completedValue.getData() : null;
+      } finally {
+        if (dataLoaderRegistry != null) {
+          dataLoaderRegistry.leave();
+        }
+      }
+    };
+    StreamedListResults results = new StreamedListResults();
+    if (source instanceof Iterator || source instanceof Stream) {
+      Iterator<Object> iterator = source instanceof Iterator ?
+        (Iterator<Object>) source : ((Stream<Object>) source).iterator();
+      try {
+        int count = 0;
+        while (iterator.hasNext() && !results.isDone()) {
+          if (++count % listChunkSize == 0 && cancellation != null &&
+              cancellation.isCancelled()) {
+            throw new CancellationException();
+          }
+          results.add(completeItem.apply(iterator.next()), null);
+        }
+      } finally {
+        if (source instanceof Stream) {
+          ((Stream<Object>) source).close();
+        }
+      }
+      results.end();
+    } else {
+      ListSubscriber.subscribe(source, new ListSubscriber(completeItem, results, listChunkSize,
+                                                          cancellation));
+    }
+    return new ExecutionResultImpl(results.isDone() && !results.isCompletedExceptionally() ?
+                                   results.join() : results, null);
+  }
+
+  private ExecutionResult completeValueForList(ExecutionContext executionContext,
+                                               GraphQLList fieldType, List<Field> fields,
+                                               Iterable<Object> result, FieldPlan fieldPlan) {
+    List<Object> items;
+    if (result instanceof List) {
+      items = (List<Object>) result;
+    } else {
+      items = new ArrayList<>(result instanceof Collection ? ((Collection<?>) result).size() : 10);
+      result.forEach(items::add);
+    }
+    ListResults results = new ListResults(items.size());
+    if (items.size() <= inlineListThreshold) {
+      completeItems(executionContext, fieldType, fields, items, fieldPlan, results, 0,
+                    items.size());
+    } else {
+      completeItemsInChunks(executionContext, fieldType, fields, items, fieldPlan, results);
+    }
+    // Spare the future, if every element is done already
+    return new ExecutionResultImpl(results.isDone() && !results.isCompletedExceptionally() ?
+                                   results.join() : results, null);
+  }
+
+  /**
+   * Complete the elements of a long list in chunks, no more than {@link #maxConcurrentListChunks}
+   * of which are completed at a time, each on the {@link #executorService}. Every worker takes the
+   * next chunk that is not taken yet, until there are none left.
+   */
+  private void completeItemsInChunks(ExecutionContext executionContext, GraphQLList fieldType,
+                                     List<Field> fields, List<Object> items,
+                                     FieldPlan fieldPlan, ListResults results) {
+    DataLoaderRegistry dataLoaderRegistry = dataLoaderRegistry(executionContext);
+    int chunkCount = (items.size() + listChunkSize - 1) / listChunkSize;
+    AtomicInteger nextChunk = new AtomicInteger();
+    Runnable worker = () -> {
+      try {
+        int chunk;
+        while ((chunk = nextChunk.getAndIncrement()) < chunkCount && !results.isDone()) {
+          int from = chunk * listChunkSize;
+          completeItems(executionContext, fieldType, fields, items, fieldPlan, results, from,
+                        Math.min(from + listChunkSize, items.size()));
+        }
+      } catch (RuntimeException e) {
+        results.completeExceptionally(e);
+      } finally {
+        if (dataLoaderRegistry != null) {
+          dataLoaderRegistry.leave();
+        }
+      }
+    };
+    for (int workers = Math.min(chunkCount, maxConcurrentListChunks); workers > 0; workers--) {
+      if (dataLoaderRegistry != null) {
+        dataLoaderRegistry.enter();
+      }
+      try {
+        executorService.execute(worker);
+      } catch (RuntimeException e) {
+        results.completeExceptionally(e);
+        if (dataLoaderRegistry != null) {
+          dataLoaderRegistry.leave();
+        }
+      }
+    }
+  }
+
+  private void completeItems(ExecutionContext executionContext, GraphQLList fieldType,
+                             List<Field> fields, List<Object> items, FieldPlan fieldPlan,
+                             ListResults results, int from, int to) {
+    Cancellation cancellation = cancellation(executionContext);
+    if (cancellation != null && cancellation.isCancelled()) {
+      throw new CancellationException();
+    }
+    for (int index = from; index < to; index++) {
+      ExecutionResult completedValue = completeValue(executionContext, fieldType.getWrappedType(),
+                                                     fields, items.get(index), fieldPlan);
+      results.setData(index, completedValue != null ? completedValue.getData() : null);
+    }
+  }
+
+  /**
+   * Plan the given fields of an object of the given type.
+   *
+   * @param executionContext the execution context
+   * @param parentType       the type of the object
+   * @param fields           the collected fields of the object
+   * @return the plan of the fields
+   */
+  SelectionPlan planSelection(ExecutionContext executionContext, GraphQLObjectType parentType,
+                              Map<String, List<Field>> fields) {
+    FieldPlan[] fieldPlans = new FieldPlan[fields.size()];
+    int index = 0;
+    for (List<Field> fieldList : fields.values()) {
+      fieldPlans[index++] = planField(executionContext, parentType, fieldList);
+    }
+    return new SelectionPlan(fields, fieldPlans);
+  }
+
+  private FieldPlan planField(ExecutionContext executionContext, GraphQLObjectType parentType,
+                              List<Field> fields) {
+    GraphQLFieldDefinition fieldDef;
+    try {
+      fieldDef = getFieldDef(executionContext.getGraphQLSchema(), parentType, fields.get(0));
+    } catch (GraphQLException e) {
+      // Leave it to the resolution of the field to report the unknown field
+      return null;
+    }
+    Map<String, Object> argumentValues = null;
+    if (!ExecutionPlan.hasVariables(fields.get(0).getArguments())) {
+      argumentValues = valuesResolver.getArgumentValues(
+        fieldDef.getArguments(), fields.get(0).getArguments(), Collections.emptyMap());
+    }
+    return new FieldPlan(fieldDef, argumentValues);
+  }
+
+  private Map<String, List<Field>> collectSubFields(ExecutionContext executionContext,
+                                                    GraphQLObjectType resolvedType,
+                                                    List<Field> fields) {
+    Map<String, List<Field>> subFields = new LinkedHashMap<>();
+    List<String> visitedFragments = new ArrayList<>();
+    for (Field field : fields) {
+      if (field.getSelectionSet() != null) {
+        fieldCollector.collectFields(executionContext, resolvedType, field.getSelectionSet(),
+                                     visitedFragments, subFields);
+      }
+    }
+    return subFields;
+  }
+
+  private static FieldPlan fieldPlan(SelectionPlan selectionPlan, int index) {
+    return selectionPlan != null ? selectionPlan.fieldPlans[index] : null;
+  }
+
+  /**
+   * @return the memo of the request, if any, unless the field is a top level field of a mutation,
+   * or its data fetcher merely reads a property or a static value, which is cheaper than memoizing
+   */
+  private static FetchMemo fetchMemo(ExecutionContext executionContext,
+                                     GraphQLObjectType parentType,
+                                     GraphQLFieldDefinition fieldDef) {
+    if (!(executionContext instanceof AsyncExecutionContext)) {
+      return null;
+    }
+    FetchMemo fetchMemo = ((AsyncExecutionContext) executionContext).getFetchMemo();
+    if (fetchMemo == null || parentType == executionContext.getGraphQLSchema().getMutationType()) {
+      return null;
+    }
+    DataFetcher dataFetcher = fieldDef.getDataFetcher();
+    return dataFetcher instanceof PropertyDataFetcher || dataFetcher instanceof StaticDataFetcher ?
+           null : fetchMemo;
+  }
+
+  private static ExecutionInstrumentation instrumentation(ExecutionContext executionContext) {
+    return executionContext instanceof AsyncExecutionContext ?
+           ((AsyncExecutionContext) executionContext).getInstrumentation() : null;
+  }
+
+  private static DataLoaderRegistry dataLoaderRegistry(ExecutionContext executionContext) {
+    return executionContext instanceof AsyncExecutionContext ?
+           ((AsyncExecutionContext) executionContext).getDataLoaderRegistry() : null;
+  }
+
+  /**
+   * @return the executor service to complete fetched futures on, or null to complete them on the
+   * thread that completes them
+   */
+  private ExecutorService completionExecutorService() {
+    if (completionExecutorService != null) {
+      return completionExecutorService;
+    }
+    return inline || inlineCompletion ? null : executorService;
+  }
+
+  /**
+   * @return the executor to complete fetched futures on, which hands them over to the given
+   * executor service, while counting them as work in progress, so that data loaders are not
+   * dispatched in between
+   */
+  private static Executor completionExecutor(ExecutorService completionExecutorService,
+                                             DataLoaderRegistry dataLoaderRegistry) {
+    if (dataLoaderRegistry == null) {
+      return completionExecutorService;
+    }
+    return task -> {
+      dataLoaderRegistry.enter();
+      try {
+        completionExecutorService.execute(() -> {
+          try {
+            task.run();
+          } finally {
+            dataLoaderRegistry.leave();
+          }
+        });
+      } catch (RuntimeException e) {
+        dataLoaderRegistry.leave();
+        throw e;
+      }
+    };
+  }
+
+  /**
+   * Look up {@code Executors.newVirtualThreadPerTaskExecutor()} reflectively, so that this library
+   * keeps running on Java 8.
+   */
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+        .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      throw new UnsupportedOperationException("Virtual threads require Java 21 or later", e);
+    }
+  }
+
+  /**
+   * @return whether the value is a source of list elements, such as an iterator, a stream or a
+   * publisher, which can be read only once
+   */
+  static boolean isSource(Object value) {
+    return value instanceof Iterator || value instanceof Stream ||
+           reactiveStreams && ListSubscriber.isPublisher(value);
+  }
+
+  private static boolean isPresent(String className) {
+    try {
+      Class.forName(className, false, AsyncExecutionStrategy.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  private static Bulkhead bulkhead(ExecutionContext executionContext,
+                                   GraphQLObjectType parentType,
+                                   GraphQLFieldDefinition fieldDef) {
+    BulkheadRegistry bulkheadRegistry = executionContext instanceof AsyncExecutionContext ?
+      ((AsyncExecutionContext) executionContext).getBulkheadRegistry() : null;
+    return bulkheadRegistry != null ? bulkheadRegistry.route(parentType, fieldDef) : null;
+  }
+
+  private static Cancellation cancellation(ExecutionContext executionContext) {
+    return executionContext instanceof AsyncExecutionContext ?
+           ((AsyncExecutionContext) executionContext).getCancellation() : null;
+  }
+
+  /**
+   * @return a completable future of the data of the given execution result, which is the data
+   * itself if it is already a completable future.
+   */
+  @SuppressWarnings("unchecked")
+  private static CompletableFuture<Object> dataOf(ExecutionResult executionResult) {
+    Object data = executionResult != null ? executionResult.getData() : null;
+    return data instanceof CompletableFuture ?
+           (CompletableFuture<Object>) data : CompletableFuture.completedFuture(data);
   }
 }
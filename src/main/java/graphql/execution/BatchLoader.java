@@ -0,0 +1,23 @@
+package graphql.execution;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A function that loads the values for a batch of keys in one go, say in a single call to a backend.
+ *
+ * The list of values must be the same size as the list of keys, and be in the same order. A key
+ * that has no value maps to a null value.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+@FunctionalInterface
+public interface BatchLoader<K, V> {
+
+  /**
+   * @param keys the distinct keys that were loaded since the last batch
+   * @return a completable future of the values, in the order of the keys
+   */
+  CompletableFuture<List<V>> load(List<K> keys);
+}
@@ -0,0 +1,351 @@
+package graphql.execution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * A named partition of an executor service, which resolves the fields that are routed to it, and
+ * no more than a given number of them at a time. Fields that exceed that limit wait in a bounded
+ * queue of their own, so that a slow backend takes up its own bulkhead, and not the threads that
+ * other fields need.
+ *
+ * A field takes up its place in the bulkhead until its data fetcher is done, including the future
+ * that it may return, so that calls to the backend that are still in flight count against the
+ * limit, even though they hold no thread. The sub-selection of the field is not counted, since its
+ * fields may be routed to the same bulkhead.
+ *
+ * Fields are routed to a bulkhead by their parent type, by their parent type and name, or by their
+ * data fetcher, if it's a {@link BulkheadDataFetcher}. Bulkheads are registered with the {@link
+ * graphql.async.GraphQL.Builder}.
+ */
+public class Bulkhead implements Executor {
+
+  private static final Logger log = LoggerFactory.getLogger(Bulkhead.class);
+
+  /**
+   * Releases the place of a field that runs outside of the bulkhead, and so holds none.
+   */
+  private static final Runnable NOT_HELD = () -> {
+  };
+
+  /**
+   * What to do with a field once both the bulkhead and its queue are full.
+   */
+  public enum Rejection {
+    /**
+     * Fail the field, which is then set to null, with an error.
+     */
+    FAIL,
+    /**
+     * Resolve the field on the thread that routed it to the bulkhead.
+     */
+    CALLER_RUNS
+  }
+
+  private final String name;
+  private final ExecutorService executorService;
+  private final int maxConcurrency;
+  private final int maxQueued;
+  private final Rejection rejection;
+  private final List<String> typeNames;
+  private final Map<String, List<String>> fieldNames;
+  private final Queue<QueuedTask> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger activeCount = new AtomicInteger();
+  private final AtomicInteger queueDepth = new AtomicInteger();
+  private final LongAdder rejectedCount = new LongAdder();
+
+  private static class QueuedTask {
+
+    private final Consumer<Runnable> task;
+    private final Consumer<RuntimeException> onRejected;
+
+    private QueuedTask(Consumer<Runnable> task, Consumer<RuntimeException> onRejected) {
+      this.task = task;
+      this.onRejected = onRejected;
+    }
+  }
+
+  private Bulkhead(String name, ExecutorService executorService, int maxConcurrency,
+                   int maxQueued, Rejection rejection, List<String> typeNames,
+                   Map<String, List<String>> fieldNames) {
+    this.name = name;
+    this.executorService = executorService;
+    this.maxConcurrency = maxConcurrency;
+    this.maxQueued = maxQueued;
+    this.rejection = rejection;
+    this.typeNames = typeNames;
+    this.fieldNames = fieldNames;
+  }
+
+  /**
+   * Helps you build a bulkhead
+   *
+   * @param name the name of the bulkhead, which a {@link BulkheadDataFetcher} may refer to
+   * @return a builder of bulkheads
+   */
+  public static Builder newBulkhead(String name) {
+    return new Builder(name);
+  }
+
+  public static class Builder {
+
+    private final String name;
+    private ExecutorService executorService;
+    private int maxConcurrency = Integer.MAX_VALUE;
+    private int maxQueued = Integer.MAX_VALUE;
+    private Rejection rejection = Rejection.FAIL;
+    private final List<String> typeNames = new ArrayList<>();
+    private final Map<String, List<String>> fieldNames = new LinkedHashMap<>();
+
+    private Builder(String name) {
+      assertNotNull(name, "Bulkhead name must be non null");
+      this.name = name;
+    }
+
+    public Builder executorService(ExecutorService executorService) {
+      assertNotNull(executorService, "ExecutorService must be non null");
+      this.executorService = executorService;
+      return this;
+    }
+
+    public Builder maxConcurrency(int maxConcurrency) {
+      assert maxConcurrency > 0 : "Maximum concurrency must be positive";
+      this.maxConcurrency = maxConcurrency;
+      return this;
+    }
+
+    public Builder maxQueued(int maxQueued) {
+      assert maxQueued >= 0 : "Maximum queued must not be negative";
+      this.maxQueued = maxQueued;
+      return this;
+    }
+
+    public Builder rejection(Rejection rejection) {
+      assertNotNull(rejection, "Rejection must be non null");
+      this.rejection = rejection;
+      return this;
+    }
+
+    /**
+     * Route every field of the given type to this bulkhead.
+     *
+     * @param typeName the name of the parent type of the fields
+     * @return this builder
+     */
+    public Builder type(String typeName) {
+      assertNotNull(typeName, "Type name must be non null");
+      typeNames.add(typeName);
+      return this;
+    }
+
+    /**
+     * Route the given field of the given type to this bulkhead.
+     *
+     * @param typeName  the name of the parent type of the field
+     * @param fieldName the name of the field
+     * @return this builder
+     */
+    public Builder field(String typeName, String fieldName) {
+      assertNotNull(typeName, "Type name must be non null");
+      assertNotNull(fieldName, "Field name must be non null");
+      fieldNames.computeIfAbsent(typeName, type -> new ArrayList<>()).add(fieldName);
+      return this;
+    }
+
+    public Bulkhead build() {
+      assertNotNull(executorService, "ExecutorService must be non null");
+      return new Bulkhead(name, executorService, maxConcurrency, maxQueued, rejection,
+                          Collections.unmodifiableList(new ArrayList<>(typeNames)),
+                          Collections.unmodifiableMap(new LinkedHashMap<>(fieldNames)));
+    }
+  }
+
+  /**
+   * Resolve the given field as soon as the bulkhead has room for it, or reject it, if neither the
+   * bulkhead nor its queue do.
+   *
+   * @param task the resolution of a field
+   * @throws RejectedExecutionException if the field is rejected, and the rejection is to fail
+   */
+  @Override
+  public void execute(Runnable task) {
+    execute(release -> {
+      try {
+        task.run();
+      } finally {
+        release.run();
+      }
+    }, null);
+  }
+
+  /**
+   * Resolve the given field as soon as the bulkhead has room for it, or reject it, if neither the
+   * bulkhead nor its queue do. The field keeps its place in the bulkhead until it's released, which
+   * it may be on another thread, once the future of its data fetcher is done.
+   *
+   * @param task       the resolution of a field, which is handed what releases its place in the
+   *                   bulkhead, and has to run it, or throw, once its data fetcher is done
+   * @param onRejected fails the field, if it's queued, and the executor service rejects it once
+   *                   its turn comes, or null to resolve it on the thread whose turn it is, instead
+   * @throws RejectedExecutionException if the field is rejected, and the rejection is to fail
+   */
+  void execute(Consumer<Runnable> task, Consumer<RuntimeException> onRejected) {
+    if (tryAcquire()) {
+      submit(task);
+      return;
+    }
+    if (queueDepth.incrementAndGet() <= maxQueued) {
+      queue.add(new QueuedTask(task, onRejected));
+      // The fields that were active may have finished in the meantime
+      drain();
+      return;
+    }
+    queueDepth.decrementAndGet();
+    rejectedCount.increment();
+    if (rejection == Rejection.CALLER_RUNS) {
+      task.accept(NOT_HELD);
+    } else {
+      throw new RejectedExecutionException("Bulkhead " + name + " is full");
+    }
+  }
+
+  private boolean tryAcquire() {
+    int active;
+    do {
+      active = activeCount.get();
+      if (active >= maxConcurrency) {
+        return false;
+      }
+    } while (!activeCount.compareAndSet(active, active + 1));
+    return true;
+  }
+
+  private void submit(Consumer<Runnable> task) {
+    try {
+      executorService.execute(() -> {
+        Runnable release = newRelease();
+        try {
+          task.accept(release);
+        } catch (RuntimeException e) {
+          release.run();
+          throw e;
+        }
+      });
+    } catch (RuntimeException e) {
+      activeCount.decrementAndGet();
+      throw e;
+    }
+  }
+
+  /**
+   * @return what releases a place in the bulkhead, and starts the next queued field, if any, only
+   * the first time it's run
+   */
+  private Runnable newRelease() {
+    AtomicBoolean released = new AtomicBoolean();
+    return () -> {
+      if (released.compareAndSet(false, true)) {
+        activeCount.decrementAndGet();
+        drain();
+      }
+    };
+  }
+
+  /**
+   * Start queued fields, for as long as there is room for them. A field that the executor service
+   * rejects is failed, or resolved on this thread, in the manner of the {@link Rejection} of the
+   * bulkhead, rather than lost, since it's no longer in the queue, nor its exception thrown, since
+   * this may be the thread of another field.
+   */
+  private void drain() {
+    while (!queue.isEmpty() && tryAcquire()) {
+      QueuedTask queuedTask = queue.poll();
+      if (queuedTask == null) {
+        activeCount.decrementAndGet();
+        return;
+      }
+      queueDepth.decrementAndGet();
+      try {
+        submit(queuedTask.task);
+      } catch (RuntimeException e) {
+        rejectedCount.increment();
+        reject(queuedTask, e);
+      }
+    }
+  }
+
+  private void reject(QueuedTask queuedTask, RuntimeException e) {
+    if (rejection == Rejection.FAIL && queuedTask.onRejected != null) {
+      try {
+        queuedTask.onRejected.accept(e);
+      } catch (RuntimeException onRejectedException) {
+        log.warn("Exception while failing a field of bulkhead {}", name, onRejectedException);
+      }
+      return;
+    }
+    try {
+      queuedTask.task.accept(NOT_HELD);
+    } catch (RuntimeException taskException) {
+      log.warn("Exception while resolving a field of bulkhead {}", name, taskException);
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  public int getMaxQueued() {
+    return maxQueued;
+  }
+
+  /**
+   * @return the number of fields that are being resolved in this bulkhead right now, including
+   * those whose data fetcher returned a future that is not done yet
+   */
+  public int getActiveCount() {
+    return activeCount.get();
+  }
+
+  /**
+   * @return the number of fields that wait for room in this bulkhead right now
+   */
+  public int getQueueDepth() {
+    return queueDepth.get();
+  }
+
+  /**
+   * @return the number of fields that were rejected by this bulkhead, so far
+   */
+  public long getRejectedCount() {
+    return rejectedCount.sum();
+  }
+
+  List<String> getTypeNames() {
+    return typeNames;
+  }
+
+  Map<String, List<String>> getFieldNames() {
+    return fieldNames;
+  }
+}
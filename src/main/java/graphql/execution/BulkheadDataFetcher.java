@@ -0,0 +1,13 @@
+package graphql.execution;
+
+/**
+ * A data fetcher that names the {@link Bulkhead} which its fields are to be resolved in, regardless
+ * of their type or name.
+ */
+public interface BulkheadDataFetcher extends AsyncDataFetcher {
+
+  /**
+   * @return the name of the bulkhead to resolve the fields of this data fetcher in
+   */
+  String getBulkhead();
+}
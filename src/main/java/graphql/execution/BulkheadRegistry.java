@@ -0,0 +1,71 @@
+package graphql.execution;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+
+/**
+ * The {@link Bulkhead}s of a GraphQL object, by name, along with the routes of fields to them.
+ *
+ * A field is routed by its data fetcher first, if it's a {@link BulkheadDataFetcher}, then by its
+ * parent type and name, and finally by its parent type alone. Fields without a route are resolved
+ * by the execution strategy as usual.
+ */
+public class BulkheadRegistry {
+
+  private final Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+  private final Map<String, Bulkhead> bulkheadsByType = new HashMap<>();
+  private final Map<String, Map<String, Bulkhead>> bulkheadsByField = new HashMap<>();
+
+  /**
+   * @param bulkheads the bulkheads, whose names must be unique
+   */
+  public BulkheadRegistry(Collection<Bulkhead> bulkheads) {
+    for (Bulkhead bulkhead : bulkheads) {
+      this.bulkheads.put(bulkhead.getName(), bulkhead);
+      for (String typeName : bulkhead.getTypeNames()) {
+        bulkheadsByType.put(typeName, bulkhead);
+      }
+      bulkhead.getFieldNames().forEach((typeName, fieldNames) -> {
+        Map<String, Bulkhead> byName =
+          bulkheadsByField.computeIfAbsent(typeName, type -> new HashMap<>());
+        for (String fieldName : fieldNames) {
+          byName.put(fieldName, bulkhead);
+        }
+      });
+    }
+  }
+
+  /**
+   * @param name the name of the bulkhead
+   * @return the bulkhead by that name, or null if there is none
+   */
+  public Bulkhead getBulkhead(String name) {
+    return bulkheads.get(name);
+  }
+
+  public Collection<Bulkhead> getBulkheads() {
+    return bulkheads.values();
+  }
+
+  /**
+   * @return the bulkhead that the given field is routed to, or null if there is none
+   */
+  Bulkhead route(GraphQLObjectType parentType, GraphQLFieldDefinition fieldDef) {
+    DataFetcher dataFetcher = fieldDef.getDataFetcher();
+    if (dataFetcher instanceof BulkheadDataFetcher) {
+      Bulkhead bulkhead = bulkheads.get(((BulkheadDataFetcher) dataFetcher).getBulkhead());
+      if (bulkhead != null) {
+        return bulkhead;
+      }
+    }
+    Map<String, Bulkhead> byName = bulkheadsByField.get(parentType.getName());
+    Bulkhead bulkhead = byName != null ? byName.get(fieldDef.getName()) : null;
+    return bulkhead != null ? bulkhead : bulkheadsByType.get(parentType.getName());
+  }
+}
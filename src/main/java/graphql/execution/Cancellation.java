@@ -0,0 +1,226 @@
+package graphql.execution;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The cancellation of a single request, either because its deadline passed, or because it was
+ * {@link #cancel() cancelled}, say when the client went away.
+ *
+ * The futures that data fetchers return are tracked for as long as they are pending, and are
+ * cancelled along with the request, so that tasks which have not started yet never take up a
+ * thread. Fields whose data fetchers have not returned by then, say because they block a thread of
+ * the pool, are set to null there and then, with a {@link CancellationError} each, so that the
+ * deadline bounds the request, however long its data fetchers take. Data fetchers that do work of
+ * their own can check {@link #isCancelled()}, or register a callback with {@link
+ * #onCancel(Runnable)}, through {@link AsyncDataFetchingEnvironment#getCancellation()}.
+ *
+ * A request whose deadline passes is cancelled on an executor, rather than on the single thread
+ * that times the deadlines of all requests, since cancelling it completes the request, and so runs
+ * the callbacks of whoever waits for its result.
+ */
+public class Cancellation {
+
+  private static final Logger log = LoggerFactory.getLogger(Cancellation.class);
+
+  private static final ScheduledThreadPoolExecutor deadlines = new ScheduledThreadPoolExecutor(
+    1, runnable -> {
+      Thread thread = new Thread(runnable, "graphql-deadlines");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+  /**
+   * Cancels the requests whose deadlines passed, on threads of its own, since the threads of the
+   * pool that the fields run on may be the very ones that are blocked.
+   */
+  private static final ThreadPoolExecutor cancellations;
+
+  static {
+    deadlines.setRemoveOnCancelPolicy(true);
+    int threads = Runtime.getRuntime().availableProcessors();
+    cancellations = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                                           new LinkedBlockingQueue<>(), runnable -> {
+      Thread thread = new Thread(runnable, "graphql-cancellations");
+      thread.setDaemon(true);
+      return thread;
+    });
+    cancellations.allowCoreThreadTimeOut(true);
+  }
+
+  private final long deadline;
+  private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+  private final Map<FieldResults, IntConsumer> unresolved = new ConcurrentHashMap<>();
+  private final Queue<Runnable> callbacks = new ConcurrentLinkedQueue<>();
+  private final AtomicReference<String> reason = new AtomicReference<>();
+  private volatile ScheduledFuture<?> timer;
+
+  private Cancellation(long deadline) {
+    this.deadline = deadline;
+  }
+
+  /**
+   * @return a cancellation without a deadline, which is cancelled only when it's told to
+   */
+  public static Cancellation newCancellation() {
+    return new Cancellation(Long.MAX_VALUE);
+  }
+
+  /**
+   * @param timeout the time that the request is given, from now on
+   * @return a cancellation that cancels itself once the timeout has passed, on a pool of daemon
+   * threads that is set aside for that
+   */
+  public static Cancellation withTimeout(Duration timeout) {
+    return withTimeout(timeout, cancellations);
+  }
+
+  /**
+   * @param timeout  the time that the request is given, from now on
+   * @param executor the executor to cancel the request on, once the timeout has passed, which runs
+   *                 the callbacks of the cancellation and completes the request
+   * @return a cancellation that cancels itself once the timeout has passed
+   */
+  public static Cancellation withTimeout(Duration timeout, Executor executor) {
+    long nanos = timeout.toNanos();
+    Cancellation cancellation = new Cancellation(System.nanoTime() + nanos);
+    cancellation.timer = deadlines.schedule(
+      () -> cancellation.cancel("the deadline of the request passed", executor), nanos,
+      TimeUnit.NANOSECONDS);
+    return cancellation;
+  }
+
+  /**
+   * Cancel the request on the calling thread, along with the futures of its fields that are still
+   * pending.
+   *
+   * @return true if the request was cancelled by this call, false if it was cancelled before
+   */
+  public boolean cancel() {
+    return cancel("the request was cancelled", Runnable::run);
+  }
+
+  private boolean cancel(String reason, Executor executor) {
+    if (!this.reason.compareAndSet(null, reason)) {
+      return false;
+    }
+    done();
+    try {
+      executor.execute(this::cancelFields);
+    } catch (RuntimeException e) {
+      log.warn("Exception while handing over the cancellation of a request", e);
+      cancelFields();
+    }
+    return true;
+  }
+
+  private void cancelFields() {
+    // Let the data fetchers know before their futures are cancelled, which completes the request
+    Runnable callback;
+    while ((callback = callbacks.poll()) != null) {
+      run(callback);
+    }
+    for (CompletableFuture<?> future : pending) {
+      future.cancel(false);
+    }
+    unresolved.forEach(FieldResults::cancelUnresolved);
+  }
+
+  public boolean isCancelled() {
+    return reason.get() != null;
+  }
+
+  /**
+   * @return why the request was cancelled, or null if it was not
+   */
+  public String getReason() {
+    return reason.get();
+  }
+
+  /**
+   * @return the time that is left until the deadline, or null if there is none
+   */
+  public Duration getRemaining() {
+    if (deadline == Long.MAX_VALUE) {
+      return null;
+    }
+    return Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+  }
+
+  /**
+   * Register a callback to run once the request is cancelled, or right away if it already is.
+   *
+   * @param callback the callback, which may run on the thread that cancels the request
+   */
+  public void onCancel(Runnable callback) {
+    callbacks.add(callback);
+    if (isCancelled() && callbacks.remove(callback)) {
+      run(callback);
+    }
+  }
+
+  /**
+   * Stop the deadline timer, once the request is done.
+   */
+  public void done() {
+    ScheduledFuture<?> timer = this.timer;
+    if (timer != null) {
+      timer.cancel(false);
+    }
+  }
+
+  /**
+   * Track the given future of a field until it's done, so that it's cancelled with the request.
+   */
+  void track(CompletableFuture<?> future) {
+    if (future.isDone()) {
+      return;
+    }
+    pending.add(future);
+    future.whenComplete((value, throwable) -> pending.remove(future));
+    if (isCancelled()) {
+      future.cancel(false);
+    }
+  }
+
+  /**
+   * Track the given results of an object until all of its fields are set, so that the fields whose
+   * data fetchers have not returned when the request is cancelled are set there and then.
+   *
+   * @param cancelField sets the field at the given index to null, with a {@link CancellationError}
+   */
+  void track(FieldResults results, IntConsumer cancelField) {
+    if (results.isDone()) {
+      return;
+    }
+    unresolved.put(results, cancelField);
+    results.whenComplete((value, throwable) -> unresolved.remove(results));
+    if (isCancelled()) {
+      results.cancelUnresolved(cancelField);
+    }
+  }
+
+  private static void run(Runnable callback) {
+    try {
+      callback.run();
+    } catch (RuntimeException e) {
+      log.warn("Exception while running cancellation callback", e);
+    }
+  }
+}
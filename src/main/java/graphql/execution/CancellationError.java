@@ -0,0 +1,49 @@
+package graphql.execution;
+
+import java.util.Collections;
+import java.util.List;
+
+import graphql.ErrorType;
+import graphql.GraphQLError;
+import graphql.language.Field;
+import graphql.language.SourceLocation;
+
+/**
+ * The error of a field that was not resolved before its request was {@link Cancellation
+ * cancelled}.
+ */
+public class CancellationError implements GraphQLError {
+
+  private final Field field;
+  private final String reason;
+
+  public CancellationError(Field field, String reason) {
+    this.field = field;
+    this.reason = reason;
+  }
+
+  public Field getField() {
+    return field;
+  }
+
+  @Override
+  public String getMessage() {
+    return "Field '" + field.getName() + "' was cancelled, because " + reason;
+  }
+
+  @Override
+  public List<SourceLocation> getLocations() {
+    return field.getSourceLocation() != null ?
+           Collections.singletonList(field.getSourceLocation()) : null;
+  }
+
+  @Override
+  public ErrorType getErrorType() {
+    return ErrorType.DataFetchingException;
+  }
+
+  @Override
+  public String toString() {
+    return "CancellationError{field=" + field.getName() + ", reason=" + reason + '}';
+  }
+}
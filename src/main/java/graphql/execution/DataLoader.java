@@ -0,0 +1,111 @@
+package graphql.execution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static graphql.Assert.assertNotNull;
+
+/**
+ * A per-request queue of keys, that are loaded in batches by a {@link BatchLoader}.
+ *
+ * Data fetchers {@link #load(Object)} keys through the {@link AsyncDataFetchingEnvironment}, and
+ * get back a {@link CompletableFuture} of the value. The {@link AsyncExecutionStrategy} dispatches
+ * the queued keys once every field that is in progress is either done or waiting on a data loader,
+ * which is to say, once per level of the query.
+ *
+ * Keys are loaded at most once per request, so loading the same key twice returns the same future.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class DataLoader<K, V> {
+
+  private final BatchLoader<K, V> batchLoader;
+  private final DataLoaderRegistry dataLoaderRegistry;
+  private final Map<K, CompletableFuture<V>> futuresByKey = new ConcurrentHashMap<>();
+  private List<K> queuedKeys = new ArrayList<>();
+  private List<CompletableFuture<V>> queuedFutures = new ArrayList<>();
+
+  DataLoader(BatchLoader<K, V> batchLoader, DataLoaderRegistry dataLoaderRegistry) {
+    this.batchLoader = batchLoader;
+    this.dataLoaderRegistry = dataLoaderRegistry;
+  }
+
+  /**
+   * Queue the given key to be loaded in the next batch, unless it has already been loaded.
+   *
+   * This must be called from within a data fetcher, so that the key is dispatched along with the
+   * rest of the level that the field belongs to.
+   *
+   * @param key the key to load
+   * @return a completable future of the value of the key
+   */
+  public CompletableFuture<V> load(K key) {
+    assertNotNull(key, "key must be non null");
+    CompletableFuture<V> future = futuresByKey.get(key);
+    if (future != null) {
+      return future;
+    }
+    future = new CompletableFuture<>();
+    CompletableFuture<V> loadedFuture = futuresByKey.putIfAbsent(key, future);
+    if (loadedFuture != null) {
+      return loadedFuture;
+    }
+    synchronized (this) {
+      queuedKeys.add(key);
+      queuedFutures.add(future);
+    }
+    return future;
+  }
+
+  /**
+   * Hand the keys that have been queued since the last dispatch to the batch loader, if any.
+   */
+  void dispatch() {
+    List<K> keys;
+    List<CompletableFuture<V>> futures;
+    synchronized (this) {
+      if (queuedKeys.isEmpty()) {
+        return;
+      }
+      keys = queuedKeys;
+      futures = queuedFutures;
+      queuedKeys = new ArrayList<>();
+      queuedFutures = new ArrayList<>();
+    }
+    CompletableFuture<List<V>> values;
+    try {
+      values = batchLoader.load(keys);
+    } catch (RuntimeException e) {
+      values = new CompletableFuture<>();
+      values.completeExceptionally(e);
+    }
+    if (values == null) {
+      values = new CompletableFuture<>();
+      values.completeExceptionally(
+        new IllegalStateException("The batch loader must return a future of the values"));
+    }
+    values.whenComplete((loadedValues, throwable) -> {
+      // Complete the whole batch before the next one is dispatched
+      dataLoaderRegistry.enter();
+      try {
+        if (throwable == null && (loadedValues == null || loadedValues.size() != keys.size())) {
+          throwable = new IllegalStateException(
+            "The batch loader must return as many values as there are keys");
+        }
+        for (int index = 0; index < futures.size(); index++) {
+          if (throwable != null) {
+            futures.get(index).completeExceptionally(throwable);
+          } else {
+            futures.get(index).complete(loadedValues.get(index));
+          }
+        }
+      } finally {
+        dataLoaderRegistry.leave();
+      }
+    });
+  }
+}
@@ -0,0 +1,62 @@
+package graphql.execution;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link DataLoader}s of a single request, by name.
+ *
+ * It also keeps count of the work that is in progress, that is to say, fields that are being
+ * resolved and batches that are being completed. When that count drops to zero, every field is
+ * either done or waiting on a data loader, and so all of the queued keys are dispatched.
+ */
+public class DataLoaderRegistry {
+
+  private final Map<String, DataLoader<?, ?>> dataLoaders = new LinkedHashMap<>();
+  private final AtomicInteger inProgress = new AtomicInteger();
+
+  /**
+   * @param batchLoaders the batch loaders by name, one data loader of which is created per name
+   */
+  @SuppressWarnings("unchecked")
+  public DataLoaderRegistry(Map<String, BatchLoader<?, ?>> batchLoaders) {
+    batchLoaders.forEach((name, batchLoader) -> dataLoaders.put(
+      name, new DataLoader<>((BatchLoader<Object, Object>) batchLoader, this)));
+  }
+
+  /**
+   * @param name the name of the data loader
+   * @return the data loader by that name, or null if there is none
+   */
+  @SuppressWarnings("unchecked")
+  public <K, V> DataLoader<K, V> getDataLoader(String name) {
+    return (DataLoader<K, V>) dataLoaders.get(name);
+  }
+
+  /**
+   * Dispatch the keys that are queued in each of the data loaders.
+   */
+  public void dispatchAll() {
+    for (DataLoader<?, ?> dataLoader : dataLoaders.values()) {
+      dataLoader.dispatch();
+    }
+  }
+
+  /**
+   * Mark the start of some work that may load keys.
+   */
+  void enter() {
+    inProgress.incrementAndGet();
+  }
+
+  /**
+   * Mark the end of some work that may have loaded keys, and dispatch them if nothing else is in
+   * progress.
+   */
+  void leave() {
+    if (inProgress.decrementAndGet() == 0) {
+      dispatchAll();
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package graphql.execution;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import graphql.GraphQLError;
+
+/**
+ * The errors of a request, which any number of threads append to without taking a lock, nor ever
+ * copying the errors that are there already.
+ *
+ * Each error takes the next index, and is stored in a chunk of its own, the chunks doubling in
+ * size, so that a request with a handful of errors holds on to a small array, and one with
+ * thousands of them still has only a few chunks. A chunk is put in place by whichever thread
+ * needs it first.
+ *
+ * Since an error may take its index before an earlier one is stored, the errors that are handed
+ * out are those up to the first that is not stored yet. Readers remember how far they got, so that
+ * each error is looked for once.
+ */
+class ErrorLog {
+
+  private static final int FIRST_CHUNK_BITS = 3;
+
+  private final AtomicReferenceArray<AtomicReferenceArray<GraphQLError>> chunks =
+    new AtomicReferenceArray<>(Integer.SIZE - FIRST_CHUNK_BITS);
+  private final AtomicInteger taken = new AtomicInteger();
+  private final AtomicInteger stored = new AtomicInteger();
+
+  void add(GraphQLError error) {
+    int index = taken.getAndIncrement();
+    int position = index + (1 << FIRST_CHUNK_BITS);
+    int chunk = chunkOf(position);
+    chunk(chunk).set(position - (1 << (chunk + FIRST_CHUNK_BITS)), error);
+  }
+
+  /**
+   * @return a read-only view of the errors that are stored so far, which does not see those that
+   * are stored later
+   */
+  List<GraphQLError> view() {
+    int from = stored.get();
+    int to = from;
+    int end = taken.get();
+    while (to < end && get(to) != null) {
+      to++;
+    }
+    if (to > from) {
+      stored.accumulateAndGet(to, Math::max);
+    }
+    return new View(to);
+  }
+
+  private GraphQLError get(int index) {
+    int position = index + (1 << FIRST_CHUNK_BITS);
+    int chunk = chunkOf(position);
+    AtomicReferenceArray<GraphQLError> errors = chunks.get(chunk);
+    return errors != null ? errors.get(position - (1 << (chunk + FIRST_CHUNK_BITS))) : null;
+  }
+
+  private AtomicReferenceArray<GraphQLError> chunk(int chunk) {
+    AtomicReferenceArray<GraphQLError> errors = chunks.get(chunk);
+    if (errors == null) {
+      chunks.compareAndSet(chunk, null,
+                           new AtomicReferenceArray<>(1 << (chunk + FIRST_CHUNK_BITS)));
+      errors = chunks.get(chunk);
+    }
+    return errors;
+  }
+
+  private static int chunkOf(int position) {
+    return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(position) - FIRST_CHUNK_BITS;
+  }
+
+  private class View extends AbstractList<GraphQLError> implements RandomAccess {
+
+    private final int size;
+
+    private View(int size) {
+      this.size = size;
+    }
+
+    @Override
+    public GraphQLError get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      return ErrorLog.this.get(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package graphql.execution;
+
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+
+/**
+ * Told about the timings of each request, and of each field that an {@link AsyncExecutionStrategy}
+ * resolves, so as to tell the time that is spent waiting for a thread apart from the time that is
+ * spent in data fetchers.
+ *
+ * Events are reported once each request or field is done, with timestamps of {@link
+ * System#nanoTime()}, and with nothing but primitives besides the schema objects of the field, so
+ * reporting them allocates nothing. A timestamp is 0 if the request or field never got that far,
+ * say because it was shed, rejected or cancelled.
+ *
+ * Implementations are called concurrently, on whatever thread completes the request or field, and
+ * so must be thread safe and quick. See {@link HistogramInstrumentation} for one that aggregates
+ * the events into histograms.
+ */
+public interface ExecutionInstrumentation {
+
+  /**
+   * @param enqueuedNanos when the request was handed over for execution
+   * @param startedNanos  when the request was admitted, and parsing and execution began
+   * @param endedNanos    when the request was complete
+   * @param errorCount    the number of errors of the request
+   */
+  default void onRequest(long enqueuedNanos, long startedNanos, long endedNanos, int errorCount) {
+  }
+
+  /**
+   * @param parentType      the type of the object that the field belongs to
+   * @param fieldDefinition the definition of the field
+   * @param enqueuedNanos   when the field was handed to an executor, or run inline
+   * @param startedNanos    when a thread began to resolve the field, or 0 if none did, because
+   *                        the field was rejected or cancelled first
+   * @param fetchedNanos    when its data fetcher, or the future that it returned, was done
+   * @param endedNanos      when the value of the field, including its sub-selections, was done
+   * @param threadHops      how many times the field moved from one thread to another, between
+   *                        being enqueued, started, fetched and done
+   * @param failed          whether the field ended with an error
+   */
+  default void onField(GraphQLObjectType parentType, GraphQLFieldDefinition fieldDefinition,
+                       long enqueuedNanos, long startedNanos, long fetchedNanos, long endedNanos,
+                       int threadHops, boolean failed) {
+  }
+}
@@ -0,0 +1,87 @@
+package graphql.execution;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import graphql.language.Directive;
+import graphql.language.Document;
+import graphql.language.Node;
+import graphql.language.OperationDefinition;
+import graphql.language.VariableReference;
+
+/**
+ * The compiled form of a validated {@link Document}, which the {@link AsyncExecutionStrategy} walks
+ * instead of collecting fields, looking up field definitions and resolving constant arguments at
+ * every object node.
+ *
+ * The plan is a tree of {@link SelectionPlan}s, one per selection set and object type, each with a
+ * {@link FieldPlan} per field. It's compiled lazily, as objects of each type are completed, so a
+ * list of objects is planned only once. A plan that is cached along with its document, in the
+ * {@link graphql.async.DocumentCache}, is shared by later requests, unless the selections of the
+ * document depend on variables, through {@code @skip} or {@code @include}.
+ */
+public class ExecutionPlan {
+
+  private final Document document;
+  private final boolean reusable;
+  private final Map<OperationDefinition, SelectionPlan> operationPlans = new ConcurrentHashMap<>();
+
+  public ExecutionPlan(Document document) {
+    this(document, !hasVariableDirectives(document));
+  }
+
+  private ExecutionPlan(Document document, boolean reusable) {
+    this.document = document;
+    this.reusable = reusable;
+  }
+
+  public Document getDocument() {
+    return document;
+  }
+
+  /**
+   * @return true if the plan may be shared by requests, regardless of their variables
+   */
+  public boolean isReusable() {
+    return reusable;
+  }
+
+  /**
+   * @return this plan if it's reusable, otherwise a fresh plan of the document for a single request
+   */
+  public ExecutionPlan forRequest() {
+    return reusable ? this : new ExecutionPlan(document, false);
+  }
+
+  SelectionPlan getOperationPlan(OperationDefinition operationDefinition,
+                                 Function<OperationDefinition, SelectionPlan> planner) {
+    return operationPlans.computeIfAbsent(operationDefinition, planner);
+  }
+
+  private static boolean hasVariableDirectives(Node node) {
+    if (node instanceof Directive && hasVariables(((Directive) node).getArguments())) {
+      return true;
+    }
+    for (Node child : node.getChildren()) {
+      if (hasVariableDirectives(child)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param nodes the nodes to look into, such as the arguments of a field
+   * @return true if any one of the nodes, or their descendants, refers to a variable
+   */
+  static boolean hasVariables(List<? extends Node> nodes) {
+    for (Node node : nodes) {
+      if (node instanceof VariableReference || hasVariables(node.getChildren())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,132 @@
+package graphql.execution;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLFieldDefinition;
+
+/**
+ * The values that the data fetchers of a single request fetched, keyed by the definition of the
+ * field, the identity of the source and the arguments, so that a field that is asked for the same
+ * value again, say through an alias, a repeated selection or another path to the same entity, is
+ * fetched only once. The definition, rather than the data fetcher, tells fields apart, since one
+ * data fetcher may serve several fields, and fetch a different value for each of them.
+ *
+ * Each value is held as a future, which is put in place before the data fetcher is run, so that
+ * concurrent calls for the same value share the one that is in flight, rather than racing it.
+ */
+class FetchMemo {
+
+  private final Map<Key, CompletableFuture<Object>> values = new ConcurrentHashMap<>();
+
+  private static class Key {
+
+    private final GraphQLFieldDefinition fieldDefinition;
+    private final Object source;
+    private final Map<String, Object> arguments;
+    private final int hashCode;
+
+    private Key(GraphQLFieldDefinition fieldDefinition, Object source,
+                Map<String, Object> arguments) {
+      this.fieldDefinition = fieldDefinition;
+      this.source = source;
+      this.arguments = arguments;
+      this.hashCode = 31 * (31 * System.identityHashCode(fieldDefinition) +
+                            System.identityHashCode(source)) + arguments.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return fieldDefinition == key.fieldDefinition && source == key.source &&
+             arguments.equals(key.arguments);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * Fetch a value through the data fetcher of the given field, unless it already fetched, or is
+   * fetching, the value for the same source and arguments.
+   *
+   * Values that are {@link AsyncExecutionStrategy#isSource(Object) sources} of list elements, such
+   * as iterators, streams and publishers, can be read only once, so they are not memoized: each
+   * field that asks for one fetches its own.
+   *
+   * @param fieldDefinition the definition of the field
+   * @param environment the environment to fetch the value in, whose source and arguments key the
+   *                    value
+   * @return the value, which is a future if the data fetcher returned one, or if the value is still
+   * being fetched for another field
+   * @throws RuntimeException whatever the data fetcher throws, in which case each field that asks
+   *                          for the same value later on gets a failed future
+   */
+  @SuppressWarnings("unchecked")
+  Object fetch(GraphQLFieldDefinition fieldDefinition, DataFetchingEnvironment environment) {
+    Key key = new Key(fieldDefinition, environment.getSource(), environment.getArguments());
+    CompletableFuture<Object> memoized = new CompletableFuture<>();
+    CompletableFuture<Object> existing = values.putIfAbsent(key, memoized);
+    if (existing != null) {
+      if (!existing.isDone()) {
+        return existing.thenCompose(value -> AsyncExecutionStrategy.isSource(value) ?
+                                             refetch(fieldDefinition, environment) :
+                                             CompletableFuture.completedFuture(value));
+      }
+      if (existing.isCompletedExceptionally()) {
+        return existing;
+      }
+      Object value = existing.getNow(null);
+      return AsyncExecutionStrategy.isSource(value) ?
+             fieldDefinition.getDataFetcher().get(environment) : value;
+    }
+    Object value;
+    try {
+      value = fieldDefinition.getDataFetcher().get(environment);
+    } catch (RuntimeException e) {
+      memoized.completeExceptionally(e);
+      throw e;
+    }
+    if (value instanceof CompletableFuture) {
+      ((CompletableFuture<Object>) value).whenComplete((completedValue, throwable) -> {
+        if (throwable != null) {
+          memoized.completeExceptionally(throwable);
+        } else {
+          forgetSource(key, memoized, completedValue);
+          memoized.complete(completedValue);
+        }
+      });
+    } else {
+      forgetSource(key, memoized, value);
+      memoized.complete(value);
+    }
+    return value;
+  }
+
+  /**
+   * Forget the memoized value, if it's a source, so that later fields fetch their own.
+   */
+  private void forgetSource(Key key, CompletableFuture<Object> memoized, Object value) {
+    if (AsyncExecutionStrategy.isSource(value)) {
+      values.remove(key, memoized);
+    }
+  }
+
+  /**
+   * Fetch a value again, for a field that waited on a value that turned out to be a source.
+   */
+  @SuppressWarnings("unchecked")
+  private static CompletableFuture<Object> refetch(GraphQLFieldDefinition fieldDefinition,
+                                                   DataFetchingEnvironment environment) {
+    Object value = fieldDefinition.getDataFetcher().get(environment);
+    return value instanceof CompletableFuture ?
+           (CompletableFuture<Object>) value : CompletableFuture.completedFuture(value);
+  }
+}
@@ -0,0 +1,65 @@
+package graphql.execution;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+
+/**
+ * The plan of a field, which holds its definition, the values of its arguments, if they don't
+ * depend on variables, and the plans of its sub-selection, by the type of object it resolves to.
+ */
+class FieldPlan {
+
+  final GraphQLFieldDefinition fieldDef;
+  private final Map<String, Object> argumentValues;
+  private final Map<GraphQLObjectType, SelectionPlan> selectionPlans = new ConcurrentHashMap<>();
+
+  /**
+   * @param fieldDef       the definition of the field
+   * @param argumentValues the values of the arguments, or null if they depend on variables
+   */
+  FieldPlan(GraphQLFieldDefinition fieldDef, Map<String, Object> argumentValues) {
+    this.fieldDef = fieldDef;
+    this.argumentValues = argumentValues;
+  }
+
+  /**
+   * @return a copy of the values of the arguments, which the data fetcher is free to change, as it
+   * was before they were planned, or null if they depend on variables
+   */
+  Map<String, Object> copyArgumentValues() {
+    return argumentValues != null ? copy(argumentValues) : null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T copy(T value) {
+    if (value instanceof Map) {
+      Map<Object, Object> copy = new LinkedHashMap<>();
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        copy.put(entry.getKey(), copy(entry.getValue()));
+      }
+      return (T) copy;
+    }
+    if (value instanceof List) {
+      List<Object> copy = new ArrayList<>(((List<?>) value).size());
+      for (Object element : (List<?>) value) {
+        copy.add(copy(element));
+      }
+      return (T) copy;
+    }
+    return value;
+  }
+
+  SelectionPlan getSelectionPlan(GraphQLObjectType resolvedType,
+                                 Function<GraphQLObjectType, SelectionPlan> planner) {
+    SelectionPlan selectionPlan = selectionPlans.get(resolvedType);
+    return selectionPlan != null ? selectionPlan :
+           selectionPlans.computeIfAbsent(resolvedType, planner);
+  }
+}
@@ -0,0 +1,150 @@
+package graphql.execution;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link CompletableFuture} of the data of an object, which is completed in a single step, on the
+ * thread that sets the value of its last outstanding field.
+ *
+ * The values of the fields are kept in a slot array that is pre-sized and ordered by the names of
+ * the fields, which becomes the data of the object as it is, in the form of a {@link ShapedMap},
+ * once all of them are done.
+ *
+ * The fields of a request that may be {@link Cancellation cancelled} also keep track of whether
+ * their data fetcher returned, so that those which have not can be set when the request is
+ * cancelled, and are then set only once, whichever comes first.
+ *
+ * The listener and the timings are told about each field in isolation: an exception that they
+ * throw is logged, rather than passed on to the caller, which would otherwise fail a field that
+ * was already set.
+ */
+class FieldResults extends CompletableFuture<Map<String, Object>> {
+
+  private static final Logger log = LoggerFactory.getLogger(FieldResults.class);
+
+  private static final AtomicIntegerFieldUpdater<FieldResults> PENDING =
+    AtomicIntegerFieldUpdater.newUpdater(FieldResults.class, "pending");
+
+  private static final int UNRESOLVED = 0;
+  private static final int FETCHED = 1;
+  private static final int SET = 2;
+
+  private final Shape shape;
+  private final Object[] values;
+  private final AtomicIntegerArray states;
+  private final ObjIntConsumer<Object> listener;
+  private final boolean retain;
+  final FieldTimings timings;
+  private volatile int pending;
+
+  FieldResults(Shape shape) {
+    this(shape, null, true, null, false);
+  }
+
+  /**
+   * @param listener is told the value and index of each field as soon as it's set, before this
+   *                 future is completed
+   * @param retain   whether to keep the values of the fields, or to complete with null, once the
+   *                 listener is told about all of them
+   * @param timings  the timings of the fields, which are told about each field as it's set, if
+   *                 they are instrumented
+   * @param cancellable whether the request may be cancelled, in which case the state of each field
+   *                    is kept track of
+   */
+  FieldResults(Shape shape, ObjIntConsumer<Object> listener, boolean retain,
+               FieldTimings timings, boolean cancellable) {
+    this.shape = shape;
+    this.listener = listener;
+    this.retain = retain;
+    this.timings = timings;
+    this.values = new Object[shape.size()];
+    this.states = cancellable ? new AtomicIntegerArray(values.length) : null;
+    this.pending = values.length;
+    if (pending == 0) {
+      complete(new ShapedMap(shape, values));
+    }
+  }
+
+  /**
+   * Mark the data fetcher of the field at the given index as returned, so that the field is left
+   * to its value, or to the future that it returned, when the request is cancelled.
+   */
+  void fetched(int index) {
+    if (states != null) {
+      states.compareAndSet(index, UNRESOLVED, FETCHED);
+    }
+  }
+
+  /**
+   * Claim the field at the given index, which has to be done before it's set.
+   *
+   * @return true if the caller is to set the field, or false if it was claimed before, when the
+   * request was cancelled
+   */
+  boolean claim(int index) {
+    if (states == null) {
+      return true;
+    }
+    int state;
+    do {
+      state = states.get(index);
+      if (state == SET) {
+        return false;
+      }
+    } while (!states.compareAndSet(index, state, SET));
+    return true;
+  }
+
+  /**
+   * Claim every field whose data fetcher has not returned yet, and hand it to the given consumer,
+   * which is to set it.
+   */
+  void cancelUnresolved(IntConsumer cancelField) {
+    if (states == null) {
+      return;
+    }
+    for (int index = 0; index < values.length; index++) {
+      if (states.compareAndSet(index, UNRESOLVED, SET)) {
+        cancelField.accept(index);
+      }
+    }
+  }
+
+  /**
+   * Set the value of the field at the given index, which the caller has {@link #claim(int)
+   * claimed}, and complete this future if it was the last one.
+   *
+   * @param index the index of the field in the order of the field names
+   * @param value the completed value of the field
+   */
+  void set(int index, Object value) {
+    if (retain) {
+      values[index] = value;
+    }
+    if (timings != null) {
+      try {
+        timings.end(index);
+      } catch (RuntimeException e) {
+        log.warn("Exception while instrumenting field {}", shape.keys[index], e);
+      }
+    }
+    if (listener != null) {
+      try {
+        listener.accept(value, index);
+      } catch (RuntimeException e) {
+        log.warn("Exception while listening to field {}", shape.keys[index], e);
+      }
+    }
+    if (PENDING.decrementAndGet(this) == 0) {
+      complete(retain ? new ShapedMap(shape, values) : null);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package graphql.execution;
+
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+
+/**
+ * The timings of the fields of an object, in slot arrays that are pre-sized and ordered like those
+ * of its {@link FieldResults}, so that instrumenting a field takes no allocation of its own. Each
+ * slot is written by one thread at a time, as the field is handed from one thread to the next.
+ */
+final class FieldTimings {
+
+  private final ExecutionInstrumentation instrumentation;
+  private final GraphQLObjectType parentType;
+  private final GraphQLFieldDefinition[] fieldDefinitions;
+  private final long[] enqueued;
+  private final long[] started;
+  private final long[] fetched;
+  private final Thread[] threads;
+  private final int[] hops;
+  private final boolean[] failed;
+
+  FieldTimings(ExecutionInstrumentation instrumentation, GraphQLObjectType parentType, int size) {
+    this.instrumentation = instrumentation;
+    this.parentType = parentType;
+    this.fieldDefinitions = new GraphQLFieldDefinition[size];
+    this.enqueued = new long[size];
+    this.started = new long[size];
+    this.fetched = new long[size];
+    this.threads = new Thread[size];
+    this.hops = new int[size];
+    this.failed = new boolean[size];
+  }
+
+  void enqueue(int index, GraphQLFieldDefinition fieldDefinition) {
+    fieldDefinitions[index] = fieldDefinition;
+    enqueued[index] = System.nanoTime();
+    threads[index] = Thread.currentThread();
+  }
+
+  void start(int index) {
+    started[index] = System.nanoTime();
+    hop(index);
+  }
+
+  void fetch(int index) {
+    fetched[index] = System.nanoTime();
+    hop(index);
+  }
+
+  void fail(int index) {
+    failed[index] = true;
+  }
+
+  /**
+   * Report the field, whose value is done, even if it never started, say because it was rejected or
+   * cancelled, unless it was never enqueued, because it's not in the schema.
+   */
+  void end(int index) {
+    long ended = System.nanoTime();
+    hop(index);
+    threads[index] = null;
+    if (fieldDefinitions[index] != null) {
+      instrumentation.onField(parentType, fieldDefinitions[index], enqueued[index], started[index],
+                              fetched[index], ended, hops[index], failed[index]);
+    }
+  }
+
+  private void hop(int index) {
+    Thread thread = Thread.currentThread();
+    if (threads[index] != thread) {
+      threads[index] = thread;
+      hops[index]++;
+    }
+  }
+}
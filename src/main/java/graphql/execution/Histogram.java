@@ -0,0 +1,113 @@
+package graphql.execution;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values, such as durations in nanoseconds, whose buckets are
+ * allocated up front, so that recording a value allocates nothing.
+ *
+ * Each power of two is split into {@value #SUB_BUCKETS} buckets of equal width, so that values are
+ * told apart to within an eighth of their magnitude, whatever it is.
+ */
+public class Histogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * @param value the value to record, which counts as 0 if it's negative
+   */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts.incrementAndGet(bucket(value));
+    count.increment();
+    sum.add(value);
+    long currentMax = max.get();
+    while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+      currentMax = max.get();
+    }
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  public double getMean() {
+    long total = count.sum();
+    return total == 0 ? 0 : (double) sum.sum() / total;
+  }
+
+  /**
+   * @param percentile the percentile, from 0 to 100
+   * @return the highest value of the bucket that the given percentile of the values falls in, but
+   * no more than the highest value that was recorded, or 0 if no value was recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    long total = count.sum();
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      seen += counts.get(bucket);
+      if (seen >= rank) {
+        return Math.min(highestValue(bucket), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  public void reset() {
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      counts.set(bucket, 0);
+    }
+    count.reset();
+    sum.reset();
+    max.set(0);
+  }
+
+  private static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  private static long highestValue(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long width = 1L << (exponent - SUB_BUCKET_BITS);
+    long lowest = (SUB_BUCKETS + bucket % SUB_BUCKETS) * width;
+    return lowest + width - 1;
+  }
+
+  @Override
+  public String toString() {
+    return "Histogram{" +
+           "count=" + getCount() +
+           ", mean=" + getMean() +
+           ", p50=" + getValueAtPercentile(50) +
+           ", p99=" + getValueAtPercentile(99) +
+           ", max=" + getMax() +
+           '}';
+  }
+}
@@ -0,0 +1,122 @@
+package graphql.execution;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+
+/**
+ * An {@link ExecutionInstrumentation} that aggregates the timings of all requests and fields into
+ * {@link Histogram}s of nanoseconds, which break the latency of a field down into the time that it
+ * waited for a thread, the time that its data fetcher took, and the time that it took to complete
+ * its value after that.
+ */
+public class HistogramInstrumentation implements ExecutionInstrumentation {
+
+  private final Histogram requestQueueTime = new Histogram();
+  private final Histogram requestTime = new Histogram();
+  private final Histogram fieldQueueTime = new Histogram();
+  private final Histogram fetchTime = new Histogram();
+  private final Histogram completionTime = new Histogram();
+  private final Histogram fieldTime = new Histogram();
+  private final Histogram threadHops = new Histogram();
+  private final LongAdder requestErrorCount = new LongAdder();
+  private final LongAdder fieldErrorCount = new LongAdder();
+
+  @Override
+  public void onRequest(long enqueuedNanos, long startedNanos, long endedNanos, int errorCount) {
+    if (startedNanos != 0) {
+      requestQueueTime.record(startedNanos - enqueuedNanos);
+    }
+    requestTime.record(endedNanos - enqueuedNanos);
+    requestErrorCount.add(errorCount);
+  }
+
+  @Override
+  public void onField(GraphQLObjectType parentType, GraphQLFieldDefinition fieldDefinition,
+                      long enqueuedNanos, long startedNanos, long fetchedNanos, long endedNanos,
+                      int threadHops, boolean failed) {
+    if (startedNanos != 0) {
+      fieldQueueTime.record(startedNanos - enqueuedNanos);
+    }
+    if (fetchedNanos != 0) {
+      fetchTime.record(fetchedNanos - startedNanos);
+      completionTime.record(endedNanos - fetchedNanos);
+    }
+    fieldTime.record(endedNanos - enqueuedNanos);
+    this.threadHops.record(threadHops);
+    if (failed) {
+      fieldErrorCount.increment();
+    }
+  }
+
+  /**
+   * @return the time from handing a request over until it was admitted
+   */
+  public Histogram getRequestQueueTime() {
+    return requestQueueTime;
+  }
+
+  /**
+   * @return the time from handing a request over until it was complete
+   */
+  public Histogram getRequestTime() {
+    return requestTime;
+  }
+
+  /**
+   * @return the time from enqueueing a field until a thread began to resolve it
+   */
+  public Histogram getFieldQueueTime() {
+    return fieldQueueTime;
+  }
+
+  /**
+   * @return the time that data fetchers took, including the futures that they returned
+   */
+  public Histogram getFetchTime() {
+    return fetchTime;
+  }
+
+  /**
+   * @return the time from the end of a fetch until the value of the field, including its
+   * sub-selections, was done
+   */
+  public Histogram getCompletionTime() {
+    return completionTime;
+  }
+
+  /**
+   * @return the time from enqueueing a field until its value was done
+   */
+  public Histogram getFieldTime() {
+    return fieldTime;
+  }
+
+  /**
+   * @return the number of times that fields moved from one thread to another
+   */
+  public Histogram getThreadHops() {
+    return threadHops;
+  }
+
+  public long getRequestErrorCount() {
+    return requestErrorCount.sum();
+  }
+
+  public long getFieldErrorCount() {
+    return fieldErrorCount.sum();
+  }
+
+  public void reset() {
+    requestQueueTime.reset();
+    requestTime.reset();
+    fieldQueueTime.reset();
+    fetchTime.reset();
+    completionTime.reset();
+    fieldTime.reset();
+    threadHops.reset();
+    requestErrorCount.reset();
+    fieldErrorCount.reset();
+  }
+}
@@ -0,0 +1,59 @@
+package graphql.execution;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A {@link CompletableFuture} of the data of a list, which is completed in a single step, on the
+ * thread that sets the value of its last outstanding element.
+ *
+ * The values of the elements are kept in an array that is pre-sized to the length of the list, and
+ * that backs the list it completes with, so that the elements may be set in any order, from any
+ * thread, without copying them.
+ */
+class ListResults extends CompletableFuture<List<Object>> {
+
+  private static final AtomicIntegerFieldUpdater<ListResults> PENDING =
+    AtomicIntegerFieldUpdater.newUpdater(ListResults.class, "pending");
+
+  private final Object[] values;
+  private volatile int pending;
+
+  ListResults(int size) {
+    this.values = new Object[size];
+    this.pending = size;
+    if (size == 0) {
+      complete(Arrays.asList(values));
+    }
+  }
+
+  /**
+   * Set the completed data of the element at the given index, once it's done, if it's a future.
+   *
+   * @param index the index of the element
+   * @param data  the completed data of the element, which may be wrapped in a completable future
+   */
+  @SuppressWarnings("unchecked")
+  void setData(int index, Object data) {
+    if (data instanceof CompletableFuture) {
+      ((CompletableFuture<Object>) data).whenComplete((completedData, throwable) -> {
+        if (throwable != null) {
+          completeExceptionally(throwable);
+        } else {
+          set(index, completedData);
+        }
+      });
+    } else {
+      set(index, data);
+    }
+  }
+
+  private void set(int index, Object value) {
+    values[index] = value;
+    if (PENDING.decrementAndGet(this) == 0) {
+      complete(Arrays.asList(values));
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package graphql.execution;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Subscribes to a {@link org.reactivestreams.Publisher} that a data fetcher returned for a list
+ * field, and completes each element as it arrives.
+ *
+ * Elements are requested a window at a time, and more are requested only as the elements that were
+ * received are done, so that no more than a window of them is ever in progress. The subscription is
+ * cancelled if the list fails, or the request is cancelled.
+ *
+ * This class refers to reactive streams, which is an optional dependency, so it's loaded only if
+ * reactive streams is on the class path.
+ */
+class ListSubscriber implements Subscriber<Object> {
+
+  private final Function<Object, Object> completeItem;
+  private final StreamedListResults results;
+  private final int window;
+  private final Cancellation cancellation;
+  private Subscription subscription;
+  private int credit;
+
+  /**
+   * @param completeItem completes an element, and returns its data
+   * @param results      the results to add the data of the elements to
+   * @param window       the number of elements that may be in progress at a time
+   * @param cancellation the cancellation of the request, if any
+   */
+  ListSubscriber(Function<Object, Object> completeItem, StreamedListResults results, int window,
+                 Cancellation cancellation) {
+    this.completeItem = completeItem;
+    this.results = results;
+    this.window = window;
+    this.cancellation = cancellation;
+  }
+
+  static boolean isPublisher(Object result) {
+    return result instanceof org.reactivestreams.Publisher;
+  }
+
+  @SuppressWarnings("unchecked")
+  static void subscribe(Object publisher, ListSubscriber subscriber) {
+    ((org.reactivestreams.Publisher<Object>) publisher).subscribe(subscriber);
+  }
+
+  @Override
+  public void onSubscribe(Subscription subscription) {
+    synchronized (this) {
+      if (this.subscription != null) {
+        subscription.cancel();
+        return;
+      }
+      this.subscription = subscription;
+    }
+    results.whenComplete((values, throwable) -> {
+      if (throwable != null) {
+        synchronized (this) {
+          subscription.cancel();
+        }
+      }
+    });
+    if (cancellation != null) {
+      cancellation.onCancel(() -> results.completeExceptionally(new CancellationException()));
+    }
+    synchronized (this) {
+      subscription.request(window);
+    }
+  }
+
+  @Override
+  public void onNext(Object item) {
+    try {
+      results.add(completeItem.apply(item), this::done);
+    } catch (RuntimeException e) {
+      results.completeExceptionally(e);
+    }
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    results.completeExceptionally(throwable);
+  }
+
+  @Override
+  public void onComplete() {
+    results.end();
+  }
+
+  /**
+   * Request as many elements as are done, once they add up to half a window. The credit is taken
+   * before it's requested, since a synchronous publisher may emit, and so get here again, from
+   * within the request.
+   */
+  private synchronized void done() {
+    if (++credit >= Math.max(1, window / 2) && !results.isDone()) {
+      int n = credit;
+      credit = 0;
+      subscription.request(n);
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package graphql.execution;
+
+import java.util.List;
+
+import graphql.GraphQLError;
+
+/**
+ * Listens to the top level fields of an operation, each of which is reported as soon as it's done,
+ * along with the whole of its sub-selection, rather than once the operation as a whole is done.
+ *
+ * Fields are reported on the thread that completes them, and so may be reported concurrently, but
+ * every field is reported before the execution result of the operation completes.
+ */
+@FunctionalInterface
+public interface OperationListener {
+
+  /**
+   * @param index  the position of the field in the selection set of the operation
+   * @param name   the response key of the field
+   * @param data   the completed data of the field
+   * @param errors the errors of the request so far
+   */
+  void onField(int index, String name, Object data, List<GraphQLError> errors);
+
+  /**
+   * @return whether the data of the fields is also to be collected into the data of the execution
+   * result, or can be let go of once the listener is told about it, in which case the data of the
+   * execution result is null
+   */
+  default boolean retainsData() {
+    return true;
+  }
+}
@@ -0,0 +1,24 @@
+package graphql.execution;
+
+import java.util.List;
+import java.util.Map;
+
+import graphql.language.Field;
+
+/**
+ * The plan of a selection set for a given object type, which holds its collected fields, along with
+ * a {@link FieldPlan} for each one of them, in the same order, and the {@link Shape} of the data
+ * of the objects that are resolved for it.
+ */
+class SelectionPlan {
+
+  final Map<String, List<Field>> fields;
+  final FieldPlan[] fieldPlans;
+  final Shape shape;
+
+  SelectionPlan(Map<String, List<Field>> fields, FieldPlan[] fieldPlans) {
+    this.fields = fields;
+    this.fieldPlans = fieldPlans;
+    this.shape = new Shape(fields.keySet());
+  }
+}
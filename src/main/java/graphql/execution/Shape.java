@@ -0,0 +1,57 @@
+package graphql.execution;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The response keys of a selection set, in order, which the {@link ShapedMap}s of all of the
+ * objects that are resolved for the selection set share, so that each of them only needs to hold
+ * an array of its values.
+ *
+ * A shape is held by the {@link SelectionPlan} of its selection set, and so is shared by every
+ * request that runs off the same {@link ExecutionPlan}.
+ */
+final class Shape {
+
+  /**
+   * Up to this many keys are looked up by a linear scan, rather than through an index.
+   */
+  private static final int SCAN_LIMIT = 8;
+
+  final String[] keys;
+  private final Map<String, Integer> index;
+
+  Shape(Collection<String> keys) {
+    this.keys = keys.toArray(new String[keys.size()]);
+    if (this.keys.length > SCAN_LIMIT) {
+      index = new HashMap<>(this.keys.length * 4 / 3 + 1);
+      for (int position = 0; position < this.keys.length; position++) {
+        index.put(this.keys[position], position);
+      }
+    } else {
+      index = null;
+    }
+  }
+
+  int size() {
+    return keys.length;
+  }
+
+  /**
+   * @param key the response key
+   * @return the position of the key, or -1 if the shape does not have it
+   */
+  int indexOf(Object key) {
+    if (index != null) {
+      Integer position = index.get(key);
+      return position != null ? position : -1;
+    }
+    for (int position = 0; position < keys.length; position++) {
+      if (keys[position] == key || keys[position].equals(key)) {
+        return position;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,168 @@
+package graphql.execution;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The data of an object, as a map of the response keys of its {@link Shape} to an array of values
+ * in the same order, which takes a fraction of the memory of a {@link java.util.LinkedHashMap}, as
+ * there is neither a table nor an entry per field.
+ *
+ * The values of the keys of the shape can be replaced, through {@link #put} as well as through the
+ * entries, but not removed. Other keys, which instrumentation or the caller may add to the data,
+ * go to an overflow map, which is only allocated once the first of them is added, and follow the
+ * keys of the shape in the order that they were added.
+ */
+final class ShapedMap extends AbstractMap<String, Object> {
+
+  private final Shape shape;
+  private final Object[] values;
+  private Map<String, Object> overflow;
+
+  ShapedMap(Shape shape, Object[] values) {
+    this.shape = shape;
+    this.values = values;
+  }
+
+  @Override
+  public int size() {
+    return overflow != null ? values.length + overflow.size() : values.length;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return shape.indexOf(key) >= 0 || overflow != null && overflow.containsKey(key);
+  }
+
+  @Override
+  public Object get(Object key) {
+    int index = shape.indexOf(key);
+    if (index >= 0) {
+      return values[index];
+    }
+    return overflow != null ? overflow.get(key) : null;
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    int index = shape.indexOf(key);
+    if (index < 0) {
+      if (overflow == null) {
+        overflow = new LinkedHashMap<>();
+      }
+      return overflow.put(key, value);
+    }
+    Object previous = values[index];
+    values[index] = value;
+    return previous;
+  }
+
+  @Override
+  public Object remove(Object key) {
+    if (shape.indexOf(key) >= 0) {
+      throw new UnsupportedOperationException("Field '" + key + "' can't be removed");
+    }
+    return overflow != null ? overflow.remove(key) : null;
+  }
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet() {
+    return new AbstractSet<Map.Entry<String, Object>>() {
+      @Override
+      public Iterator<Map.Entry<String, Object>> iterator() {
+        return new Iterator<Map.Entry<String, Object>>() {
+          private int index;
+          private Iterator<Map.Entry<String, Object>> overflowIterator;
+
+          @Override
+          public boolean hasNext() {
+            if (index < values.length) {
+              return true;
+            }
+            if (overflowIterator == null && overflow != null) {
+              overflowIterator = overflow.entrySet().iterator();
+            }
+            return overflowIterator != null && overflowIterator.hasNext();
+          }
+
+          @Override
+          public Map.Entry<String, Object> next() {
+            if (index < values.length) {
+              return new Entry(index++);
+            }
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            return overflowIterator.next();
+          }
+
+          @Override
+          public void remove() {
+            if (overflowIterator == null) {
+              throw new UnsupportedOperationException("Fields of the shape can't be removed");
+            }
+            overflowIterator.remove();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return ShapedMap.this.size();
+      }
+    };
+  }
+
+  private class Entry implements Map.Entry<String, Object> {
+
+    private final int index;
+
+    private Entry(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public String getKey() {
+      return shape.keys[index];
+    }
+
+    @Override
+    public Object getValue() {
+      return values[index];
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      Object previous = values[index];
+      values[index] = value;
+      return previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+      Object value = values[index];
+      return getKey().equals(entry.getKey()) &&
+             (value == null ? entry.getValue() == null : value.equals(entry.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      Object value = values[index];
+      return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + values[index];
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package graphql.execution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link CompletableFuture} of the data of a list, whose elements are completed one by one, as
+ * they arrive from a source of unknown length, such as an {@link java.util.Iterator} or a {@link
+ * org.reactivestreams.Publisher}.
+ *
+ * Elements are added by one thread at a time, in order, as the source requires, while their data
+ * may be completed by any thread. The source itself counts as pending until it {@link #end() ends},
+ * so the list is completed, on the thread that completes its last pending part, only once every
+ * element has arrived and is done.
+ */
+class StreamedListResults extends CompletableFuture<List<Object>> {
+
+  private final List<Object> values = new ArrayList<>();
+  private final AtomicInteger pending = new AtomicInteger(1);
+
+  /**
+   * Add the completed data of the next element.
+   *
+   * @param data the completed data of the element, which may be wrapped in a completable future
+   * @param done what to do once the data is done, if anything
+   */
+  @SuppressWarnings("unchecked")
+  void add(Object data, Runnable done) {
+    values.add(data);
+    if (data instanceof CompletableFuture && !((CompletableFuture<Object>) data).isDone()) {
+      pending.incrementAndGet();
+      ((CompletableFuture<Object>) data).whenComplete((completedData, throwable) -> {
+        if (throwable != null) {
+          completeExceptionally(throwable);
+        } else {
+          if (done != null) {
+            done.run();
+          }
+          done();
+        }
+      });
+    } else if (done != null) {
+      done.run();
+    }
+  }
+
+  /**
+   * Mark the end of the source, after its last element is added.
+   */
+  void end() {
+    done();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void done() {
+    if (pending.decrementAndGet() == 0) {
+      for (int index = 0; index < values.size(); index++) {
+        Object value = values.get(index);
+        if (value instanceof CompletableFuture) {
+          CompletableFuture<Object> future = (CompletableFuture<Object>) value;
+          if (future.isCompletedExceptionally()) {
+            future.whenComplete((completedValue, throwable) -> completeExceptionally(throwable));
+            return;
+          }
+          values.set(index, future.getNow(null));
+        }
+      }
+      complete(values);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package graphql.async
+
+import graphql.ExecutionResult
+import graphql.ExecutionResultImpl
+import graphql.GraphQLException
+import graphql.schema.DataFetcher
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.function.Consumer
+import java.util.function.Supplier
+
+import static graphql.Scalars.GraphQLString
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+
+class AdmissionControlTest extends Specification {
+
+    def 'Requests beyond the limit wait in the queue, or are shed.'() {
+        given:
+        def pending = new LinkedBlockingQueue<CompletableFuture>()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("value")
+                                .type(GraphQLString)
+                                .dataFetcher({ env ->
+                                    def future = new CompletableFuture()
+                                    pending.add(future)
+                                    future
+                                } as DataFetcher)))
+                .build()
+        def admissionControl = AdmissionControl.newAdmissionControl()
+                .maxInFlight(1)
+                .maxQueued(1)
+                .build()
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .admissionControl(admissionControl)
+                .build()
+
+        when:
+        def first = graphQL.executeAsync("{ value }", null, null, [:])
+        def second = graphQL.executeAsync("{ value }", null, null, [:])
+        def third = graphQL.executeAsync("{ value }", null, null, [:])
+
+        then:
+        third.done
+        third.join().data == null
+        third.join().errors*.class == [LoadSheddingError]
+        admissionControl.inFlightCount == 1
+        admissionControl.queueDepth == 1
+        admissionControl.shedCount == 1
+
+        when:
+        pending.take().complete("first")
+
+        then:
+        first.join().data == [value: 'first']
+
+        when:
+        pending.take().complete("second")
+
+        then:
+        second.join().data == [value: 'second']
+        admissionControl.inFlightCount == 0
+        admissionControl.queueDepth == 0
+    }
+
+    def 'A long queue of requests that complete right away drains without overflowing the stack.'() {
+        given:
+        def admissionControl = AdmissionControl.newAdmissionControl()
+                .maxInFlight(1)
+                .maxQueued(100_000)
+                .build()
+        def first = new CompletableFuture<ExecutionResult>()
+        def done = new ExecutionResultImpl([:], [])
+        admissionControl.admit({ first } as Supplier)
+        def queued = (1..100_000).collect {
+            admissionControl.admit({ CompletableFuture.completedFuture(done) } as Supplier)
+        }
+
+        when:
+        first.complete(done)
+
+        then:
+        queued.count { !it.done || it.completedExceptionally } == 0
+        admissionControl.inFlightCount == 0
+        admissionControl.queueDepth == 0
+    }
+
+    def 'Requests that fail before they get under way fail their futures, admitted or not.'() {
+        given:
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("value")
+                                .type(GraphQLString)
+                                .staticValue("value")))
+                .build()
+        def admitted = GraphQL.newAsyncGraphQL(schema)
+                .admissionControl(AdmissionControl.newAdmissionControl().build())
+                .build()
+        def unadmitted = GraphQL.newAsyncGraphQL(schema).build()
+
+        expect:
+        [admitted, unadmitted].every {
+            it.executeAsync("{ value }", null, null, null).completedExceptionally
+        }
+    }
+
+    def 'Requests that fail before they get under way throw, or hand their consumer an error.'() {
+        given:
+        def pending = new CompletableFuture()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("value")
+                                .type(GraphQLString)
+                                .dataFetcher({ env -> pending } as DataFetcher)))
+                .build()
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .admissionControl(AdmissionControl.newAdmissionControl().maxInFlight(1).build())
+                .build()
+        def consumed = new CompletableFuture<ExecutionResult>()
+
+        when:
+        graphQL.execute("{ value }", "unknown", null, [:])
+
+        then:
+        thrown(GraphQLException)
+
+        when:
+        graphQL.execute("{ value }", "unknown", null, [:], { consumed.complete(it) } as Consumer)
+
+        then:
+        thrown(GraphQLException)
+
+        when:
+        graphQL.execute("{ value }", null, null, [:], { } as Consumer)
+        graphQL.execute("{ value }", "unknown", null, [:], { consumed.complete(it) } as Consumer)
+        pending.complete("value")
+
+        then:
+        consumed.join().data == null
+        consumed.join().errors*.class == [RequestError]
+    }
+}
@@ -0,0 +1,169 @@
+package graphql.async
+
+import graphql.GraphQLException
+import graphql.execution.AsyncDataFetchingEnvironment
+import graphql.execution.AsyncExecutionStrategy
+import graphql.execution.BatchLoader
+import graphql.schema.DataFetcher
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+import static graphql.Scalars.GraphQLInt
+import static graphql.Scalars.GraphQLString
+import static graphql.async.ExecutionInput.newExecutionInput
+import static graphql.schema.GraphQLArgument.newArgument
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+
+class BatchExecutionTest extends Specification {
+
+    def pool = Executors.newFixedThreadPool(4)
+    def greetings = new AtomicInteger()
+    def batches = new ConcurrentLinkedQueue<List>()
+
+    def cleanup() {
+        pool.shutdownNow()
+    }
+
+    GraphQL graphQL() {
+        def nodeType = GraphQLObjectType.newObject()
+                .name("Node")
+                .field(newFieldDefinition()
+                        .name("name")
+                        .type(GraphQLString))
+                .build()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("node")
+                                .type(nodeType)
+                                .argument(newArgument().name("id").type(GraphQLInt))
+                                .dataFetcher({ env ->
+                                    ((AsyncDataFetchingEnvironment) env).getDataLoader("node")
+                                            .load(env.getArgument("id"))
+                                } as DataFetcher))
+                        .field(newFieldDefinition()
+                                .name("greeting")
+                                .type(GraphQLString)
+                                .dataFetcher({ env ->
+                                    greetings.incrementAndGet()
+                                    CompletableFuture.supplyAsync({ "hello" }, pool)
+                                } as DataFetcher)))
+                .build()
+        GraphQL.newAsyncGraphQL(schema)
+                .queryExecutionStrategy(AsyncExecutionStrategy.parallel(pool))
+                .batchLoader("node", { keys ->
+                    batches.add(keys)
+                    CompletableFuture.supplyAsync({ keys.collect { [name: "node" + it] } }, pool)
+                } as BatchLoader)
+                .memoization(true)
+                .build()
+    }
+
+    @Timeout(10)
+    def 'The requests of a batch share their data loaders and memo, and keep their order.'() {
+        given:
+        def inputs = [
+                newExecutionInput().requestString('{ node(id: 1) { name } greeting }').build(),
+                newExecutionInput().requestString('{ node(id: 2) { name } }').build(),
+                newExecutionInput().requestString('{ node(id: 1) { name } }').build(),
+                newExecutionInput().requestString('{ node(id: 3) {').build(),
+                newExecutionInput()
+                        .requestString('query a { greeting } query b { node(id: $id) { name } }')
+                        .operationName('b')
+                        .build(),
+                newExecutionInput().requestString('{ greeting }').build()
+        ]
+
+        when:
+        def results = graphQL().executeBatch(inputs).join()
+
+        then:
+        results.size() == 6
+        results[0].data == [node: [name: 'node1'], greeting: 'hello']
+        results[1].data == [node: [name: 'node2']]
+        results[2].data == [node: [name: 'node1']]
+        results[3].data == null
+        results[3].errors.size() == 1
+        results[4].errors.size() == 1
+        results[5].data == [greeting: 'hello']
+        batches.collect { it.sort(false) } == [[1, 2]]
+        greetings.get() == 1
+    }
+
+    def 'A request of a batch that fails before it starts leaves the others be.'() {
+        given:
+        def inputs = [
+                newExecutionInput().requestString('{ greeting }').build(),
+                newExecutionInput().requestString('{ greeting }').operationName('unknown').build(),
+                newExecutionInput().requestString('{ greeting }').build()
+        ]
+
+        when:
+        def results = graphQL().executeBatch(inputs).join()
+
+        then:
+        results.size() == 3
+        results[0].data == [greeting: 'hello']
+        results[1].data == null
+        results[1].errors.size() == 1
+        results[1].errors[0] instanceof RequestError
+        results[1].errors[0].exception instanceof GraphQLException
+        results[2].data == [greeting: 'hello']
+    }
+
+    def 'Separate requests do not share their data loaders.'() {
+        given:
+        def graphQL = graphQL()
+
+        when:
+        graphQL.execute('{ node(id: 1) { name } }')
+        graphQL.execute('{ node(id: 1) { name } }')
+
+        then:
+        batches.size() == 2
+    }
+
+    def 'Requests after a mutation in a batch do not share values memoized before it.'() {
+        given:
+        def counter = new AtomicInteger()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("count")
+                                .type(GraphQLInt)
+                                .dataFetcher({ env -> counter.get() } as DataFetcher)))
+                .mutation(GraphQLObjectType.newObject()
+                        .name("MutationType")
+                        .field(newFieldDefinition()
+                                .name("increment")
+                                .type(GraphQLInt)
+                                .dataFetcher({ env -> counter.incrementAndGet() } as DataFetcher)))
+                .build()
+        // Resolves fields on the calling thread, so that the requests run in the order of the batch
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .queryExecutionStrategy(AsyncExecutionStrategy.adaptive())
+                .mutationExecutionStrategy(AsyncExecutionStrategy.adaptive())
+                .memoization(true)
+                .build()
+
+        when:
+        def results = graphQL.executeBatch([
+                newExecutionInput().requestString('{ count }').build(),
+                newExecutionInput().requestString('mutation { increment }').build(),
+                newExecutionInput().requestString('{ count }').build(),
+                newExecutionInput().requestString('{ again: count }').build()
+        ]).join()
+
+        then:
+        results*.data == [[count: 0], [increment: 1], [count: 1], [again: 1]]
+    }
+}
@@ -0,0 +1,98 @@
+package graphql.async
+
+import graphql.NewsSchema
+import graphql.execution.ExecutionPlan
+import graphql.language.Document
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static graphql.Scalars.GraphQLString
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+
+class DocumentCacheTest extends Specification {
+
+    def 'Documents of repeated requests are parsed once.'() {
+        given:
+        def documentCache = DocumentCache.newDocumentCache().build()
+        def graphQL = GraphQL.newAsyncGraphQL(NewsSchema.newsSchema)
+                .documentCache(documentCache)
+                .build()
+        def mutation = 'mutation publish { news { article (text: "Hello") { text } } }'
+
+        when:
+        3.times { graphQL.execute(mutation) }
+        graphQL.execute('mutation publish { news { article (text: "Hello") { text } }')
+        graphQL.execute('{ news { unknown } }')
+
+        then:
+        documentCache.size() == 1
+        documentCache.hitCount == 2
+        documentCache.missCount == 3
+    }
+
+    @Unroll
+    def 'Documents are evicted in #eviction order.'() {
+        given:
+        def documentCache = DocumentCache.newDocumentCache()
+                .maximumSize(2)
+                .eviction(eviction)
+                .keyFunction(DocumentCache.&sha256)
+                .build()
+        def executionPlan = new ExecutionPlan(new Document())
+
+        when:
+        documentCache.put("a", executionPlan)
+        documentCache.put("b", executionPlan)
+        documentCache.get("a")
+        documentCache.put("c", executionPlan)
+
+        then:
+        documentCache.size() == 2
+        documentCache.evictionCount == 1
+        (documentCache.get("a") != null) == aCached
+        (documentCache.get("b") != null) == bCached
+
+        where:
+        eviction                    | aCached | bCached
+        DocumentCache.Eviction.LRU  | true    | false
+        DocumentCache.Eviction.FIFO | false   | true
+    }
+
+
+    def 'Persisted queries are executed by their hash, once their document is cached.'() {
+        given:
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("value")
+                                .type(GraphQLString)
+                                .staticValue("value")))
+                .build()
+        def documentCache = DocumentCache.newDocumentCache()
+                .keyFunction(DocumentCache.&sha256)
+                .build()
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .documentCache(documentCache)
+                .build()
+        def query = '{ value }'
+        def hash = DocumentCache.sha256(query)
+
+        when:
+        def unknown = graphQL.executePersisted(hash, null, null, null, [:]).join()
+        def mismatched = graphQL.executePersisted(hash, '{ again: value }', null, null, [:]).join()
+        def registered = graphQL.executePersisted(hash, query, null, null, [:]).join()
+        def persisted = graphQL.executePersisted(hash, null, null, null, [:]).join()
+
+        then:
+        unknown.data == null
+        unknown.errors*.message == ['PersistedQueryNotFound']
+        mismatched.data == null
+        mismatched.errors*.class == [PersistedQueryError]
+        registered.data == [value: 'value']
+        persisted.data == [value: 'value']
+        documentCache.size() == 1
+    }
+}
@@ -0,0 +1,60 @@
+package graphql.async
+
+import graphql.ExecutionResultImpl
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executors
+import java.util.concurrent.ForkJoinWorkerThread
+import java.util.concurrent.TimeUnit
+
+class ExecutionFutureTest extends Specification {
+
+    def 'Nested futures are resolved in place.'() {
+        given:
+        def pending = new CompletableFuture()
+        def failed = new CompletableFuture()
+        def data = CompletableFuture.completedFuture([
+                a: CompletableFuture.completedFuture([1, pending]),
+                b: [c: failed],
+        ])
+
+        when:
+        def future = ExecutionFuture.completable(new ExecutionResultImpl(data, []))
+
+        then:
+        !future.done
+
+        when:
+        failed.completeExceptionally(new IllegalStateException('Oops'))
+        pending.complete(CompletableFuture.completedFuture([d: 2]))
+        def result = future.join()
+
+        then:
+        result.data == [a: [1, [d: 2]], b: [c: null]]
+        result.errors.size() == 1
+    }
+
+    def 'Futures are completed on the given executor service, or on the common pool.'() {
+        given:
+        def pool = Executors.newSingleThreadExecutor()
+        def poolThread = pool.submit({ Thread.currentThread() } as Callable).get()
+        def pending = new CompletableFuture()
+        def data = [a: pending]
+
+        when:
+        def onPool = ExecutionFuture.completable(new ExecutionResultImpl(data, []), pool)
+                .thenApply { Thread.currentThread() }
+        def onCommonPool = ExecutionFuture.completable(new ExecutionResultImpl([b: pending], []))
+                .thenApply { Thread.currentThread() }
+        pending.complete(1)
+
+        then:
+        onPool.get(5, TimeUnit.SECONDS) == poolThread
+        onCommonPool.get(5, TimeUnit.SECONDS) instanceof ForkJoinWorkerThread
+
+        cleanup:
+        pool.shutdownNow()
+    }
+}
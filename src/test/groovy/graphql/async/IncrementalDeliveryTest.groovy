@@ -0,0 +1,118 @@
+package graphql.async
+
+import graphql.schema.DataFetcher
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CompletableFuture
+import java.util.function.Consumer
+
+import static graphql.Scalars.GraphQLString
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+
+class IncrementalDeliveryTest extends Specification {
+
+    def 'Fast fields are delivered before slow ones, and errors only once.'() {
+        given:
+        def slow = new CompletableFuture()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("fast")
+                                .type(GraphQLString)
+                                .dataFetcher({ env -> "fast" } as DataFetcher))
+                        .field(newFieldDefinition()
+                                .name("slow")
+                                .type(GraphQLString)
+                                .dataFetcher({ env -> slow } as DataFetcher))
+                        .field(newFieldDefinition()
+                                .name("broken")
+                                .type(GraphQLString)
+                                .dataFetcher({ env -> throw new IllegalStateException("broken") } as DataFetcher)))
+                .build()
+        def graphQL = GraphQL.newAsyncGraphQL(schema).build()
+        def patches = Collections.synchronizedList([])
+
+        when:
+        def result = graphQL.executeIncrementally("{ fast slow broken }", null, null, [:],
+                { patches.add(it) } as Consumer)
+
+        then:
+        new PollingConditions(timeout: 5).eventually { assert patches.size() == 2 }
+        !result.done
+        patches*.path as Set == [['fast'], ['broken']] as Set
+        patches.every { it.hasNext() }
+        patches*.errors.flatten().size() == 1
+
+        when:
+        slow.complete("slow")
+
+        then:
+        result.join().data == [fast: 'fast', slow: 'slow', broken: null]
+        patches.size() == 4
+        patches[2].path == ['slow']
+        patches[2].data == 'slow'
+        patches[2].errors.empty
+        patches[3].path.empty
+        patches[3].data == null
+        patches[3].errors.empty
+        !patches[3].hasNext()
+    }
+
+    def 'Patch consumers that throw leave the fields they were handed as they were.'() {
+        given:
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("first")
+                                .type(GraphQLString)
+                                .dataFetcher({ env -> "first" } as DataFetcher))
+                        .field(newFieldDefinition()
+                                .name("second")
+                                .type(GraphQLString)
+                                .dataFetcher({ env -> CompletableFuture.completedFuture("second") } as DataFetcher)))
+                .build()
+        def graphQL = GraphQL.newAsyncGraphQL(schema).build()
+        def patches = Collections.synchronizedList([])
+
+        when:
+        def result = graphQL.executeIncrementally("{ first second }", null, null, [:], { patch ->
+            patches.add(patch)
+            if (!patch.path.empty) {
+                throw new IllegalStateException("consumer")
+            }
+        } as Consumer).join()
+
+        then:
+        result.data == [first: 'first', second: 'second']
+        result.errors.empty
+        patches*.path as Set == [['first'], ['second'], []] as Set
+    }
+
+    def 'A request that fails to validate is delivered in a single patch.'() {
+        given:
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("value")
+                                .type(GraphQLString)
+                                .staticValue("value")))
+                .build()
+        def patches = []
+
+        when:
+        GraphQL.newAsyncGraphQL(schema).build()
+                .executeIncrementally("{ missing }", null, null, [:], { patches.add(it) } as Consumer)
+                .join()
+
+        then:
+        patches.size() == 1
+        !patches[0].hasNext()
+        !patches[0].errors.empty
+    }
+}
@@ -0,0 +1,117 @@
+package graphql.async
+
+import graphql.ExecutionResultImpl
+import graphql.schema.DataFetcher
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.nio.BufferOverflowException
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+
+import static graphql.Scalars.GraphQLString
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+
+class JsonSerializerTest extends Specification {
+
+    def 'Data is written in field order, as its futures complete.'() {
+        given:
+        def pending = new CompletableFuture()
+        def data = [text  : 'quote " slash \\ line\né€😀',
+                    number: 1.5d,
+                    nan   : Double.NaN,
+                    list  : [1, CompletableFuture.completedFuture([flag: true]), null],
+                    later : pending,
+                    last  : 'last']
+        def outputStream = new ByteArrayOutputStream()
+
+        when:
+        def written = JsonSerializer.serialize(new ExecutionResultImpl(data, []), outputStream)
+
+        then:
+        !written.done
+        outputStream.toString('UTF-8') ==
+                '{"data":{"text":"quote \\" slash \\\\ line\\né€😀","number":1.5,' +
+                '"nan":null,"list":[1,{"flag":true},null],"later":'
+
+        when:
+        pending.complete([CompletableFuture.completedFuture('done')])
+
+        then:
+        written.done
+        outputStream.toString('UTF-8').endsWith('"later":["done"],"last":"last"}}')
+    }
+
+    def 'Failed futures are written as null, with an error.'() {
+        given:
+        def failed = new CompletableFuture()
+        failed.completeExceptionally(new IllegalStateException("failed"))
+        def outputStream = new ByteArrayOutputStream()
+
+        when:
+        JsonSerializer.serialize(new ExecutionResultImpl([value: failed], []), outputStream).join()
+
+        then:
+        outputStream.toString('UTF-8') == '{"data":{"value":null},"errors":[{"message":' +
+                '"Exception while fetching data: java.lang.IllegalStateException: failed"}]}'
+    }
+
+    def 'A byte buffer that is too small fails the serialization.'() {
+        given:
+        def byteBuffer = ByteBuffer.allocate(64)
+
+        when:
+        JsonSerializer.serialize(new ExecutionResultImpl([value: 'x' * 100], []), byteBuffer).join()
+
+        then:
+        def e = thrown(CompletionException)
+        e.cause instanceof BufferOverflowException
+
+        when:
+        byteBuffer.clear()
+        JsonSerializer.serialize(new ExecutionResultImpl([value: 'x'], []), byteBuffer).join()
+
+        then:
+        new String(byteBuffer.array(), 0, byteBuffer.position(), StandardCharsets.UTF_8) ==
+                '{"data":{"value":"x"}}'
+    }
+
+    def 'Top level fields are streamed as they are done.'() {
+        given:
+        def slow = new CompletableFuture()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("fast")
+                                .type(GraphQLString)
+                                .dataFetcher({ env -> "fast" } as DataFetcher))
+                        .field(newFieldDefinition()
+                                .name("slow")
+                                .type(GraphQLString)
+                                .dataFetcher({ env -> slow } as DataFetcher)))
+                .build()
+        def graphQL = GraphQL.newAsyncGraphQL(schema).build()
+        def outputStream = new ByteArrayOutputStream()
+
+        when:
+        def result = graphQL.executeStreaming("{ fast slow }", null, null, [:], outputStream)
+
+        then:
+        new PollingConditions(timeout: 5).eventually {
+            assert outputStream.toString('UTF-8') == '{"data":{"fast":"fast"'
+        }
+        !result.done
+
+        when:
+        slow.complete("slow")
+
+        then:
+        result.join().data == null
+        outputStream.toString('UTF-8') == '{"data":{"fast":"fast","slow":"slow"}}'
+    }
+}
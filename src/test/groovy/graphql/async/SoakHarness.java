@@ -0,0 +1,361 @@
+package graphql.async;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import graphql.execution.AsyncExecutionStrategy;
+import graphql.execution.Histogram;
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLTypeReference;
+
+import static graphql.Scalars.GraphQLString;
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition;
+
+/**
+ * Runs many concurrent requests through {@link GraphQL#execute(String, java.util.function.Consumer)}
+ * against stub data fetchers, half of which complete at once and half after a latency drawn from a
+ * distribution, on a pool of the caller's choosing, and reports how long the requests took, how
+ * busy the pool was, and how many requests did not complete within a bound.
+ *
+ * A request that is stuck is one whose fields wait on a pool that no thread is left to run them on,
+ * so a report with stuck requests flags pool starvation.
+ */
+public class SoakHarness {
+
+    private final ThreadPoolExecutor pool;
+    private final int requests;
+    private final int concurrency;
+    private final int width;
+    private final int depth;
+    private final LongSupplier latencyMicros;
+    private final Duration bound;
+
+    private SoakHarness(Builder builder) {
+        this.pool = builder.pool;
+        this.requests = builder.requests;
+        this.concurrency = builder.concurrency;
+        this.width = builder.width;
+        this.depth = builder.depth;
+        this.latencyMicros = builder.latencyMicros;
+        this.bound = builder.bound;
+    }
+
+    /**
+     * @param pool the pool that fields are resolved on
+     */
+    public static Builder newSoakHarness(ThreadPoolExecutor pool) {
+        return new Builder(pool);
+    }
+
+    /**
+     * @param micros the latency in microseconds
+     * @return the same latency every time
+     */
+    public static LongSupplier fixed(long micros) {
+        return () -> micros;
+    }
+
+    /**
+     * @return latencies spread evenly from the lowest to the highest, in microseconds
+     */
+    public static LongSupplier uniform(long lowestMicros, long highestMicros) {
+        return () -> ThreadLocalRandom.current().nextLong(lowestMicros, highestMicros + 1);
+    }
+
+    /**
+     * @param medianMicros the median latency in microseconds
+     * @param sigma        the standard deviation of the logarithm of the latency, where 1 puts the
+     *                     99th percentile at about ten times the median
+     * @return latencies from a log-normal distribution, whose tail is long
+     */
+    public static LongSupplier longTailed(long medianMicros, double sigma) {
+        return () -> (long) (medianMicros
+                             * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    /**
+     * Run all the requests, with no more than the given number at a time, and wait for them to
+     * complete, or for the bound to pass since the last one began.
+     */
+    public Report run() throws InterruptedException {
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "soak-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return run(scheduler);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private Report run(ScheduledExecutorService scheduler) throws InterruptedException {
+        GraphQL graphQL = GraphQL.newAsyncGraphQL(schema(scheduler))
+                .queryExecutionStrategy(AsyncExecutionStrategy.parallel(pool))
+                .build();
+        String query = query();
+        long boundNanos = bound.toNanos();
+
+        Report report = new Report(requests, pool.getMaximumPoolSize());
+        ConcurrentHashMap<Integer, Long> outstanding = new ConcurrentHashMap<>();
+        Semaphore permits = new Semaphore(concurrency);
+        scheduler.scheduleAtFixedRate(() -> report.sample(pool), 0, 1, TimeUnit.MILLISECONDS);
+
+        for (int i = 0; i < requests; i++) {
+            if (!permits.tryAcquire(boundNanos, TimeUnit.NANOSECONDS)) {
+                // Every permit is held by a request that is stuck, so there's no use going on
+                break;
+            }
+            int request = i;
+            long started = System.nanoTime();
+            outstanding.put(request, started);
+            report.issued.incrementAndGet();
+            graphQL.execute(query, result -> {
+                long elapsed = System.nanoTime() - started;
+                report.latency.record(elapsed);
+                if (elapsed > boundNanos) {
+                    report.late.incrementAndGet();
+                }
+                if (!result.getErrors().isEmpty()) {
+                    report.failed.incrementAndGet();
+                }
+                outstanding.remove(request);
+                permits.release();
+            });
+        }
+
+        long deadline = System.nanoTime() + boundNanos;
+        while (!outstanding.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        report.incomplete = outstanding.size();
+        return report;
+    }
+
+    private GraphQLSchema schema(ScheduledExecutorService scheduler) {
+        DataFetcher immediate = environment -> environment.getFields().get(0).getName();
+        DataFetcher delayed = environment -> {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            String value = environment.getFields().get(0).getName();
+            scheduler.schedule(() -> future.complete(value), latencyMicros.getAsLong(),
+                               TimeUnit.MICROSECONDS);
+            return future;
+        };
+        GraphQLObjectType.Builder nodeType = GraphQLObjectType.newObject().name("Node");
+        for (int i = 0; i < width; i++) {
+            nodeType.field(newFieldDefinition()
+                                   .name("field" + i)
+                                   .type(GraphQLString)
+                                   .dataFetcher(i % 2 == 0 ? immediate : delayed));
+        }
+        nodeType.field(newFieldDefinition()
+                               .name("child")
+                               .type(new GraphQLTypeReference("Node"))
+                               .dataFetcher(delayed));
+        GraphQLObjectType queryType = GraphQLObjectType.newObject()
+                .name("Query")
+                .field(newFieldDefinition()
+                               .name("node")
+                               .type(nodeType.build())
+                               .dataFetcher(delayed))
+                .build();
+        return GraphQLSchema.newSchema().query(queryType).build();
+    }
+
+    private String query() {
+        StringBuilder fields = new StringBuilder();
+        for (int i = 0; i < width; i++) {
+            fields.append(" field").append(i);
+        }
+        StringBuilder query = new StringBuilder("{ node {");
+        for (int level = 0; level < depth; level++) {
+            query.append(fields).append(" child {");
+        }
+        query.append(fields);
+        for (int level = 0; level <= depth; level++) {
+            query.append(" }");
+        }
+        return query.append(" }").toString();
+    }
+
+    public static class Builder {
+
+        private final ThreadPoolExecutor pool;
+        private int requests = 1000;
+        private int concurrency = 50;
+        private int width = 6;
+        private int depth = 3;
+        private LongSupplier latencyMicros = fixed(1000);
+        private Duration bound = Duration.ofSeconds(5);
+
+        private Builder(ThreadPoolExecutor pool) {
+            this.pool = pool;
+        }
+
+        /**
+         * @param requests the number of requests to run in all
+         */
+        public Builder requests(int requests) {
+            this.requests = requests;
+            return this;
+        }
+
+        /**
+         * @param concurrency the highest number of requests to run at a time
+         */
+        public Builder concurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * @param width the number of fields of each object, half of which have latency
+         * @param depth the number of objects nested within the top one, each of which has latency
+         */
+        public Builder shape(int width, int depth) {
+            this.width = width;
+            this.depth = depth;
+            return this;
+        }
+
+        /**
+         * @param latencyMicros the latency of the data fetchers that have any, in microseconds
+         */
+        public Builder latency(LongSupplier latencyMicros) {
+            this.latencyMicros = latencyMicros;
+            return this;
+        }
+
+        /**
+         * @param bound the time that every request should complete within
+         */
+        public Builder bound(Duration bound) {
+            this.bound = bound;
+            return this;
+        }
+
+        public SoakHarness build() {
+            return new SoakHarness(this);
+        }
+    }
+
+    public static class Report {
+
+        private final int requests;
+        private final int poolSize;
+        private final Histogram latency = new Histogram();
+        private final AtomicInteger issued = new AtomicInteger();
+        private final AtomicInteger late = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger maxActiveThreads = new AtomicInteger();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+        private final AtomicLong samples = new AtomicLong();
+        private final AtomicLong saturatedSamples = new AtomicLong();
+        private volatile int incomplete;
+
+        private Report(int requests, int poolSize) {
+            this.requests = requests;
+            this.poolSize = poolSize;
+        }
+
+        private void sample(ThreadPoolExecutor pool) {
+            int active = pool.getActiveCount();
+            maxActiveThreads.accumulateAndGet(active, Math::max);
+            maxQueueDepth.accumulateAndGet(pool.getQueue().size(), Math::max);
+            samples.incrementAndGet();
+            if (active >= poolSize) {
+                saturatedSamples.incrementAndGet();
+            }
+        }
+
+        /**
+         * @return the time from issuing each request until its result was handed over, in
+         * nanoseconds
+         */
+        public Histogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * @return the number of requests that were issued, which is less than the number asked
+         * for if all those running at a time got stuck
+         */
+        public int getIssued() {
+            return issued.get();
+        }
+
+        /**
+         * @return the number of requests that completed after the bound, or not at all
+         */
+        public int getStuck() {
+            return late.get() + incomplete;
+        }
+
+        /**
+         * @return the number of requests whose results had errors
+         */
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public int getMaxActiveThreads() {
+            return maxActiveThreads.get();
+        }
+
+        public int getMaxQueueDepth() {
+            return maxQueueDepth.get();
+        }
+
+        /**
+         * @return the share, from 0 to 1, of the times the pool was looked at that every one of its
+         * threads was busy
+         */
+        public double getSaturation() {
+            long total = samples.get();
+            return total == 0 ? 0 : (double) saturatedSamples.get() / total;
+        }
+
+        /**
+         * @throws AssertionError if any request was not issued, failed, or did not complete within
+         *                        the bound
+         */
+        public void assertHealthy() {
+            if (getIssued() < requests || getStuck() > 0 || getFailed() > 0) {
+                throw new AssertionError("The soak run was not healthy: " + this);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Report{" +
+                   "issued=" + getIssued() + "/" + requests +
+                   ", stuck=" + getStuck() +
+                   ", failed=" + getFailed() +
+                   ", p50=" + millis(latency.getValueAtPercentile(50)) + "ms" +
+                   ", p99=" + millis(latency.getValueAtPercentile(99)) + "ms" +
+                   ", p999=" + millis(latency.getValueAtPercentile(99.9)) + "ms" +
+                   ", max=" + millis(latency.getMax()) + "ms" +
+                   ", maxActiveThreads=" + getMaxActiveThreads() + "/" + poolSize +
+                   ", maxQueueDepth=" + getMaxQueueDepth() +
+                   ", saturation=" + String.format("%.2f", getSaturation()) +
+                   '}';
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000d;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package graphql.async
+
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.Unroll
+
+import java.time.Duration
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.SynchronousQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+
+import static graphql.async.SoakHarness.fixed
+import static graphql.async.SoakHarness.longTailed
+import static graphql.async.SoakHarness.uniform
+
+/**
+ * Soaks a small pool with concurrent requests, which are kept few enough to run with the other
+ * tests, and can be raised with -Dsoak.requests=... and -Dsoak.concurrency=...
+ */
+class SoakTest extends Specification {
+
+    static final Logger log = LoggerFactory.getLogger(SoakTest)
+
+    static int requests = Integer.getInteger("soak.requests", 300)
+    static int concurrency = Integer.getInteger("soak.concurrency", 30)
+
+    @Unroll
+    @Timeout(60)
+    def 'Concurrent requests with #distribution latency complete on a #description pool.'() {
+        given:
+        def report = SoakHarness.newSoakHarness(pool)
+                .requests(requests)
+                .concurrency(concurrency)
+                .latency(latency)
+                .bound(Duration.ofSeconds(10))
+                .build()
+                .run()
+        log.info("Soaked a {} pool with {} latency: {}", description, distribution, report)
+
+        expect:
+        report.assertHealthy()
+        report.latency.count == requests
+        report.maxActiveThreads <= pool.maximumPoolSize
+
+        cleanup:
+        pool.shutdownNow()
+
+        where:
+        distribution  | latency            | description            | pool
+        'fixed'       | fixed(1000)        | 'two-thread'           | twoThreads()
+        'uniform'     | uniform(0, 5000)   | 'two-thread'           | twoThreads()
+        'long-tailed' | longTailed(500, 1) | 'two-thread'           | twoThreads()
+        'long-tailed' | longTailed(500, 1) | 'single-thread queued' | singleThreadQueued()
+    }
+
+    @Timeout(30)
+    def 'Requests that outlast the bound count as stuck.'() {
+        given:
+        def pool = twoThreads()
+        def report = SoakHarness.newSoakHarness(pool)
+                .requests(10)
+                .concurrency(5)
+                .latency(fixed(20_000))
+                .bound(Duration.ofMillis(10))
+                .build()
+                .run()
+
+        when:
+        report.assertHealthy()
+
+        then:
+        thrown(AssertionError)
+        report.stuck > 0
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    /*
+     * A pool that never queues, whose callers run the fields that find both its threads busy
+     */
+    static ThreadPoolExecutor twoThreads() {
+        new ThreadPoolExecutor(2, 2, 30, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                new ThreadPoolExecutor.CallerRunsPolicy())
+    }
+
+    static ThreadPoolExecutor singleThreadQueued() {
+        new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>())
+    }
+}
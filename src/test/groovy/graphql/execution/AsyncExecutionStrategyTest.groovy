@@ -2,13 +2,30 @@ package graphql.execution
 
 import graphql.ExecutionResult
 import graphql.NewsSchema
+import graphql.async.DocumentCache
 import graphql.async.GraphQL
+import graphql.schema.DataFetcher
+import graphql.schema.GraphQLArgument
+import graphql.schema.DataFetchingEnvironment
+import graphql.schema.GraphQLList
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import graphql.schema.GraphQLTypeReference
+import spock.lang.IgnoreIf
 import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.Unroll
+import spock.util.concurrent.PollingConditions
 
 import java.util.concurrent.*
 import java.util.concurrent.atomic.AtomicReference
 import java.util.function.Consumer
 
+import static graphql.Scalars.GraphQLBoolean
+import static graphql.Scalars.GraphQLInt
+import static graphql.Scalars.GraphQLString
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+
 class AsyncExecutionStrategyTest extends Specification {
 
     def 'Example usage of AsyncExecutionStrategy.'() {
@@ -84,4 +101,508 @@ class AsyncExecutionStrategyTest extends Specification {
         then:
         result == expected
     }
+
+    @Timeout(10)
+    def 'Nested asynchronous fields do not starve a small pool.'() {
+        given:
+        def scheduler = Executors.newSingleThreadScheduledExecutor()
+        def later = { value ->
+            def future = new CompletableFuture()
+            scheduler.schedule({ future.complete(value) } as Runnable, 20, TimeUnit.MILLISECONDS)
+            future
+        }
+        GraphQLObjectType nodeType = GraphQLObjectType.newObject()
+                .name("node")
+                .field(newFieldDefinition()
+                        .name("value")
+                        .type(GraphQLString)
+                        .dataFetcher({ env -> later(env.source) } as DataFetcher))
+                .field(newFieldDefinition()
+                        .name("child")
+                        .type(new GraphQLTypeReference("node"))
+                        .dataFetcher({ env -> later(env.source + "." + env.fields[0].alias) } as DataFetcher))
+                .build()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("root")
+                                .type(nodeType)
+                                .dataFetcher({ env -> later("root") } as DataFetcher)))
+                .build()
+        def pool = Executors.newFixedThreadPool(2)
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .queryExecutionStrategy(AsyncExecutionStrategy.parallel(pool))
+                .build()
+
+        when:
+        def result = graphQL.execute("""
+        {
+            root {
+                a: child { value b: child { value } c: child { value } }
+                d: child { value e: child { value } f: child { value } }
+                g: child { value }
+            }
+        }
+        """)
+
+        then:
+        result.errors.isEmpty()
+        result.data == [
+                root: [
+                        a: [value: 'root.a', b: [value: 'root.a.b'], c: [value: 'root.a.c']],
+                        d: [value: 'root.d', e: [value: 'root.d.e'], f: [value: 'root.d.f']],
+                        g: [value: 'root.g']
+                ]
+        ]
+
+        cleanup:
+        pool.shutdownNow()
+        scheduler.shutdownNow()
+    }
+
+    def 'Adaptive strategy resolves synchronous fields inline.'() {
+        given:
+        def threads = new ConcurrentHashMap<String, Thread>()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("inline")
+                                .type(GraphQLString)
+                                .dataFetcher({ env ->
+                                    threads.put("inline", Thread.currentThread())
+                                    "inline"
+                                } as DataFetcher))
+                        .field(newFieldDefinition()
+                                .name("async")
+                                .type(GraphQLString)
+                                .dataFetcher(new AsyncDataFetcher() {
+                                    @Override
+                                    Object get(DataFetchingEnvironment env) {
+                                        threads.put("async", Thread.currentThread())
+                                        "async"
+                                    }
+                                })))
+                .build()
+        def pool = Executors.newFixedThreadPool(2)
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .queryExecutionStrategy(AsyncExecutionStrategy.adaptive(pool))
+                .build()
+
+        when:
+        def result = graphQL.execute("{ inline async }")
+
+        then:
+        result.data == [inline: 'inline', async: 'async']
+        threads.inline == Thread.currentThread()
+        threads.async != Thread.currentThread()
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    def 'Errors of fields that fail asynchronously are all collected.'() {
+        given:
+        def pool = Executors.newFixedThreadPool(8)
+        def failing = {
+            CompletableFuture.supplyAsync({ throw new IllegalStateException("Outage") }, pool)
+        }
+        GraphQLObjectType itemType = GraphQLObjectType.newObject()
+                .name("item")
+                .field(newFieldDefinition()
+                        .name("value")
+                        .type(GraphQLString)
+                        .dataFetcher({ env -> failing() } as DataFetcher))
+                .build()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("items")
+                                .type(new GraphQLList(itemType))
+                                .dataFetcher({ env -> (1..500).toList() } as DataFetcher)))
+                .build()
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .queryExecutionStrategy(AsyncExecutionStrategy.parallel(pool))
+                .build()
+
+        when:
+        def result = graphQL.execute("{ items { value } }")
+
+        then:
+        result.data.items.size() == 500
+        result.data.items.every { it == [value: null] }
+        result.errors.size() == 500
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    def 'Fetched futures are completed on the completion executor.'() {
+        given:
+        def fetchPool = Executors.newFixedThreadPool(2, { new Thread(it, "fetch") } as ThreadFactory)
+        def completionPool = Executors.newFixedThreadPool(2, { new Thread(it, "completion") } as ThreadFactory)
+        def threads = new ConcurrentHashMap<String, String>()
+        GraphQLObjectType itemType = GraphQLObjectType.newObject()
+                .name("item")
+                .field(newFieldDefinition()
+                        .name("value")
+                        .type(GraphQLString)
+                        .dataFetcher(new AsyncDataFetcher() {
+                            @Override
+                            boolean isAsync() {
+                                false
+                            }
+
+                            @Override
+                            Object get(DataFetchingEnvironment env) {
+                                threads.put(env.source, Thread.currentThread().name)
+                                env.source
+                            }
+                        }))
+                .build()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("items")
+                                .type(new GraphQLList(itemType))
+                                .dataFetcher({ env ->
+                                    threads.put("items", Thread.currentThread().name)
+                                    CompletableFuture.supplyAsync({ ['a', 'b', 'c'] }, fetchPool)
+                                } as DataFetcher)))
+                .build()
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .queryExecutionStrategy(AsyncExecutionStrategy.parallel(fetchPool, completionPool))
+                .build()
+
+        when:
+        def result = graphQL.execute("{ items { value } }")
+
+        then:
+        result.data == [items: [[value: 'a'], [value: 'b'], [value: 'c']]]
+        threads == [items: 'fetch', a: 'completion', b: 'completion', c: 'completion']
+
+        cleanup:
+        fetchPool.shutdownNow()
+        completionPool.shutdownNow()
+    }
+
+    @Unroll
+    def 'Fetched futures are completed on the #thread thread, when inline completion is #inlineCompletion.'() {
+        given:
+        def pool = Executors.newFixedThreadPool(2, { new Thread(it, "pool") } as ThreadFactory)
+        def other = Executors.newSingleThreadExecutor({ new Thread(it, "other") } as ThreadFactory)
+        def threads = new ConcurrentLinkedQueue<String>()
+        def items = new CompletableFuture()
+        GraphQLObjectType itemType = GraphQLObjectType.newObject()
+                .name("item")
+                .field(newFieldDefinition()
+                        .name("value")
+                        .type(GraphQLString)
+                        .dataFetcher(new AsyncDataFetcher() {
+                            @Override
+                            boolean isAsync() {
+                                false
+                            }
+
+                            @Override
+                            Object get(DataFetchingEnvironment env) {
+                                threads.add(Thread.currentThread().name)
+                                env.source
+                            }
+                        }))
+                .build()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("items")
+                                .type(new GraphQLList(itemType))
+                                .dataFetcher({ env -> items } as DataFetcher)))
+                .build()
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .queryExecutionStrategy(AsyncExecutionStrategy.parallel(pool)
+                        .inlineCompletion(inlineCompletion))
+                .build()
+
+        when:
+        def result = graphQL.executeAsync("{ items { value } }", null, null, [:])
+        // Complete the future on the other thread only once its completion is chained to it
+        new PollingConditions(timeout: 5).eventually { assert items.numberOfDependents > 0 }
+        other.execute({ items.complete(['a', 'b']) } as Runnable)
+
+        then:
+        result.join().data == [items: [[value: 'a'], [value: 'b']]]
+        threads as List == [thread, thread]
+
+        cleanup:
+        pool.shutdownNow()
+        other.shutdownNow()
+
+        where:
+        inlineCompletion | thread
+        false            | 'pool'
+        true             | 'other'
+    }
+
+    def 'Sub-selections of mutations are resolved in parallel.'() {
+        given:
+        def started = new CountDownLatch(2)
+        def together = { env ->
+            started.countDown()
+            started.await(5, TimeUnit.SECONDS)
+        } as DataFetcher
+        GraphQLObjectType payloadType = GraphQLObjectType.newObject()
+                .name("payload")
+                .field(newFieldDefinition().name("a").type(GraphQLBoolean).dataFetcher(together))
+                .field(newFieldDefinition().name("b").type(GraphQLBoolean).dataFetcher(together))
+                .build()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("payload")
+                                .type(payloadType)
+                                .dataFetcher({ env -> [:] } as DataFetcher)))
+                .mutation(GraphQLObjectType.newObject()
+                        .name("MutationType")
+                        .field(newFieldDefinition()
+                                .name("mutate")
+                                .type(payloadType)
+                                .dataFetcher({ env -> [:] } as DataFetcher)))
+                .build()
+        def pool = Executors.newFixedThreadPool(4)
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .queryExecutionStrategy(AsyncExecutionStrategy.serial(pool))
+                .mutationExecutionStrategy(AsyncExecutionStrategy.mutation(pool))
+                .build()
+
+        when:
+        def result = graphQL.execute("mutation { mutate { a b } }")
+
+        then:
+        result.data == [mutate: [a: true, b: true]]
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    def 'Deeply nested sub-selections of mutations are resolved in parallel.'() {
+        given:
+        def started = new CountDownLatch(2)
+        def together = { env ->
+            started.countDown()
+            started.await(5, TimeUnit.SECONDS)
+        } as DataFetcher
+        GraphQLObjectType payloadType = GraphQLObjectType.newObject()
+                .name("payload")
+                .field(newFieldDefinition().name("a").type(GraphQLBoolean).dataFetcher(together))
+                .field(newFieldDefinition().name("b").type(GraphQLBoolean).dataFetcher(together))
+                .field(newFieldDefinition()
+                        .name("child")
+                        .type(new GraphQLTypeReference("payload"))
+                        .dataFetcher({ env -> [:] } as DataFetcher))
+                .build()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("payload")
+                                .type(payloadType)
+                                .dataFetcher({ env -> [:] } as DataFetcher)))
+                .mutation(GraphQLObjectType.newObject()
+                        .name("MutationType")
+                        .field(newFieldDefinition()
+                                .name("mutate")
+                                .type(payloadType)
+                                .dataFetcher({ env -> [:] } as DataFetcher)))
+                .build()
+        def pool = Executors.newFixedThreadPool(4)
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .queryExecutionStrategy(AsyncExecutionStrategy.serial(pool))
+                .mutationExecutionStrategy(AsyncExecutionStrategy.mutation(pool))
+                .build()
+
+        when:
+        def result = graphQL.execute("mutation { mutate { child { child { a b } } } }")
+
+        then:
+        result.data == [mutate: [child: [child: [a: true, b: true]]]]
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    def 'Long lists are completed in chunks, in order.'() {
+        given:
+        GraphQLObjectType itemType = GraphQLObjectType.newObject()
+                .name("item")
+                .field(newFieldDefinition()
+                        .name("value")
+                        .type(GraphQLString)
+                        .dataFetcher({ env -> String.valueOf(env.source) } as DataFetcher))
+                .build()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("items")
+                                .type(new GraphQLList(itemType))
+                                .dataFetcher({ env -> (0..<10000).toList() } as DataFetcher))
+                        .field(newFieldDefinition()
+                                .name("values")
+                                .type(new GraphQLList(GraphQLString))
+                                .dataFetcher({ env -> (0..<10).collect { String.valueOf(it) } } as DataFetcher)))
+                .build()
+        def pool = Executors.newFixedThreadPool(4)
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .queryExecutionStrategy(AsyncExecutionStrategy.parallel(pool).listCompletion(100, 1000, 2))
+                .build()
+
+        when:
+        def result = graphQL.execute("{ items { value } values }")
+
+        then:
+        result.errors.isEmpty()
+        result.data.items == (0..<10000).collect { [value: String.valueOf(it)] }
+        result.data.values == (0..<10).collect { String.valueOf(it) }
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    def 'Memoized data fetchers run once per source and arguments.'() {
+        given:
+        def calls = new ConcurrentLinkedQueue()
+        def pending = new CompletableFuture()
+        GraphQLObjectType userType = GraphQLObjectType.newObject()
+                .name("user")
+                .field(newFieldDefinition()
+                        .name("name")
+                        .type(GraphQLString))
+                .build()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("user")
+                                .type(userType)
+                                .argument(GraphQLArgument.newArgument()
+                                        .name("id")
+                                        .type(GraphQLString))
+                                .dataFetcher({ env ->
+                                    calls.add(env.getArgument("id"))
+                                    pending.thenApply { [name: 'user ' + env.getArgument("id")] }
+                                } as DataFetcher)))
+                .build()
+        def query = '{ a: user(id: "1") { name } b: user(id: "1") { name } c: user(id: "2") { name } }'
+
+        when:
+        def result = GraphQL.newAsyncGraphQL(schema).memoization(memoizing).build()
+                .executeAsync(query, null, null, [:])
+        pending.complete(null)
+
+        then:
+        result.join().data == [a: [name: 'user 1'], b: [name: 'user 1'], c: [name: 'user 2']]
+        calls.size() == expectedCalls
+
+        where:
+        memoizing | expectedCalls
+        true      | 2
+        false     | 3
+    }
+
+    def 'Memoized fields that share a data fetcher keep their own values.'() {
+        given:
+        def byName = { env -> env.fields[0].name } as DataFetcher
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("first")
+                                .type(GraphQLString)
+                                .dataFetcher(byName))
+                        .field(newFieldDefinition()
+                                .name("second")
+                                .type(GraphQLString)
+                                .dataFetcher(byName)))
+                .build()
+
+        when:
+        def result = GraphQL.newAsyncGraphQL(schema).memoization(true).build()
+                .execute('{ first second again: first }')
+
+        then:
+        result.data == [first: 'first', second: 'second', again: 'first']
+    }
+
+    def 'Memoized fields each read their own iterators and streams.'() {
+        given:
+        def pending = new CompletableFuture()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("iterated")
+                                .type(new GraphQLList(GraphQLInt))
+                                .dataFetcher({ env -> (0..<3).iterator() } as DataFetcher))
+                        .field(newFieldDefinition()
+                                .name("streamed")
+                                .type(new GraphQLList(GraphQLInt))
+                                .dataFetcher({ env -> (0..<3).stream() } as DataFetcher))
+                        .field(newFieldDefinition()
+                                .name("pendingStream")
+                                .type(new GraphQLList(GraphQLInt))
+                                .dataFetcher({ env -> pending.thenApply { (0..<3).stream() } } as DataFetcher)))
+                .build()
+        def query = '{ a: iterated b: iterated c: streamed d: streamed e: pendingStream f: pendingStream }'
+
+        when:
+        def result = GraphQL.newAsyncGraphQL(schema).memoization(true).build()
+                .executeAsync(query, null, null, [:])
+        pending.complete(null)
+
+        then:
+        result.join().errors.isEmpty()
+        result.join().data == [a: [0, 1, 2], b: [0, 1, 2], c: [0, 1, 2], d: [0, 1, 2],
+                               e: [0, 1, 2], f: [0, 1, 2]]
+    }
+
+    def 'Data fetchers may change the arguments of planned fields, for their own request only.'() {
+        given:
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("echo")
+                                .type(GraphQLString)
+                                .argument(GraphQLArgument.newArgument()
+                                        .name("text")
+                                        .type(GraphQLString))
+                                .dataFetcher({ env ->
+                                    def text = env.arguments.text
+                                    env.arguments.text = 'changed'
+                                    text
+                                } as DataFetcher)))
+                .build()
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .documentCache(DocumentCache.newDocumentCache().build())
+                .build()
+
+        expect:
+        3.times {
+            assert graphQL.execute('{ echo(text: "original") }').data == [echo: 'original']
+        }
+    }
+
+    @IgnoreIf({ !System.getProperty('java.specification.version').startsWith('1.') })
+    def 'Virtual threads are rejected before Java 21.'() {
+        when:
+        AsyncExecutionStrategy.virtualThreadPerField()
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
 }
@@ -0,0 +1,227 @@
+package graphql.execution
+
+import graphql.async.GraphQL
+import graphql.schema.DataFetcher
+import graphql.schema.DataFetchingEnvironment
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicReference
+import java.util.function.Consumer
+
+import static graphql.Scalars.GraphQLString
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+
+class BulkheadTest extends Specification {
+
+    @Timeout(10)
+    def 'Fields of a slow type are confined to their bulkhead.'() {
+        given:
+        def release = new CountDownLatch(1)
+        def blocking = { env ->
+            release.await()
+            env.fields[0].name
+        } as DataFetcher
+        GraphQLObjectType slowType = GraphQLObjectType.newObject()
+                .name("Slow")
+                .field(newFieldDefinition().name("a").type(GraphQLString).dataFetcher(blocking))
+                .field(newFieldDefinition().name("b").type(GraphQLString).dataFetcher(blocking))
+                .field(newFieldDefinition().name("c").type(GraphQLString).dataFetcher(blocking))
+                .build()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("slow")
+                                .type(slowType)
+                                .dataFetcher({ env -> [:] } as DataFetcher))
+                        .field(newFieldDefinition()
+                                .name("fast")
+                                .type(GraphQLString)
+                                .dataFetcher({ env -> "fast" } as DataFetcher)))
+                .build()
+        def pool = Executors.newFixedThreadPool(4)
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .bulkhead(Bulkhead.newBulkhead("slow")
+                        .executorService(pool)
+                        .maxConcurrency(1)
+                        .maxQueued(1)
+                        .type("Slow")
+                        .build())
+                .build()
+        def bulkhead = graphQL.getBulkhead("slow")
+        def received = new AtomicReference()
+        def done = new CountDownLatch(1)
+
+        when:
+        graphQL.execute("{ slow { a b c } fast }", { result ->
+            received.set(result)
+            done.countDown()
+        } as Consumer)
+
+        then:
+        !done.await(100, TimeUnit.MILLISECONDS)
+        bulkhead.activeCount == 1
+        bulkhead.queueDepth == 1
+        bulkhead.rejectedCount == 1
+
+        when:
+        release.countDown()
+        done.await()
+
+        then:
+        received.get().data == [slow: [a: 'a', b: 'b', c: null], fast: 'fast']
+        received.get().errors.size() == 1
+        bulkhead.queueDepth == 0
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    @Timeout(10)
+    def 'Fields hold their place in the bulkhead until the futures of their data fetchers are done.'() {
+        given:
+        def pending = new LinkedBlockingQueue<CompletableFuture>()
+        def later = { env ->
+            def future = new CompletableFuture()
+            pending.add(future)
+            future.thenApply { env.fields[0].name }
+        } as DataFetcher
+        GraphQLObjectType slowType = GraphQLObjectType.newObject()
+                .name("Slow")
+                .field(newFieldDefinition().name("a").type(GraphQLString).dataFetcher(later))
+                .field(newFieldDefinition().name("b").type(GraphQLString).dataFetcher(later))
+                .build()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("slow")
+                                .type(slowType)
+                                .dataFetcher({ env -> [:] } as DataFetcher)))
+                .build()
+        def pool = Executors.newFixedThreadPool(2)
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .bulkhead(Bulkhead.newBulkhead("slow")
+                        .executorService(pool)
+                        .maxConcurrency(1)
+                        .type("Slow")
+                        .build())
+                .build()
+        def bulkhead = graphQL.getBulkhead("slow")
+
+        when:
+        def result = graphQL.executeAsync("{ slow { a b } }", null, null, [:])
+        def first = pending.poll(5, TimeUnit.SECONDS)
+
+        then:
+        pending.poll(100, TimeUnit.MILLISECONDS) == null
+        bulkhead.activeCount == 1
+        bulkhead.queueDepth == 1
+
+        when:
+        first.complete(null)
+        pending.poll(5, TimeUnit.SECONDS).complete(null)
+
+        then:
+        result.get(5, TimeUnit.SECONDS).data == [slow: [a: 'a', b: 'b']]
+        bulkhead.activeCount == 0
+        bulkhead.queueDepth == 0
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    def 'Data fetchers name their own bulkhead.'() {
+        given:
+        def threads = new AtomicReference<String>()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("marked")
+                                .type(GraphQLString)
+                                .dataFetcher(new BulkheadDataFetcher() {
+                                    @Override
+                                    String getBulkhead() {
+                                        "marked"
+                                    }
+
+                                    @Override
+                                    Object get(DataFetchingEnvironment env) {
+                                        threads.set(Thread.currentThread().name)
+                                        "marked"
+                                    }
+                                })))
+                .build()
+        def pool = Executors.newSingleThreadExecutor({ new Thread(it, "marked") })
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .bulkhead(Bulkhead.newBulkhead("marked").executorService(pool).build())
+                .build()
+
+        when:
+        def result = graphQL.execute("{ marked }")
+
+        then:
+        result.data == [marked: 'marked']
+        threads.get() == 'marked'
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    @Timeout(10)
+    def 'Queued fields that the executor service rejects fail, rather than hang.'() {
+        given:
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def blocking = { env ->
+            started.countDown()
+            release.await()
+            env.fields[0].name
+        } as DataFetcher
+        GraphQLObjectType slowType = GraphQLObjectType.newObject()
+                .name("Slow")
+                .field(newFieldDefinition().name("a").type(GraphQLString).dataFetcher(blocking))
+                .field(newFieldDefinition().name("b").type(GraphQLString).dataFetcher(blocking))
+                .build()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("slow")
+                                .type(slowType)
+                                .dataFetcher({ env -> [:] } as DataFetcher)))
+                .build()
+        def pool = Executors.newFixedThreadPool(1)
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .bulkhead(Bulkhead.newBulkhead("slow")
+                        .executorService(pool)
+                        .maxConcurrency(1)
+                        .maxQueued(1)
+                        .type("Slow")
+                        .build())
+                .build()
+
+        when:
+        def result = graphQL.executeAsync("{ slow { a b } }", null, null, [:])
+        started.await()
+        pool.shutdown()
+        release.countDown()
+
+        then:
+        result.get(5, TimeUnit.SECONDS).data == [slow: [a: 'a', b: null]]
+        result.get().errors.size() == 1
+        graphQL.getBulkhead("slow").rejectedCount == 1
+
+        cleanup:
+        pool.shutdownNow()
+    }
+}
@@ -0,0 +1,143 @@
+package graphql.execution
+
+import graphql.AssertException
+import graphql.async.GraphQL
+import graphql.schema.DataFetcher
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.time.Duration
+import java.util.concurrent.CompletionException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicReference
+import java.util.function.Consumer
+
+import static graphql.Scalars.GraphQLString
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+
+class CancellationTest extends Specification {
+
+    def cancelled = new AtomicBoolean()
+    def unblock = new CountDownLatch(1)
+
+    def schema = GraphQLSchema.newSchema()
+            .query(GraphQLObjectType.newObject()
+                    .name("QueryType")
+                    .field(newFieldDefinition()
+                            .name("fast")
+                            .type(GraphQLString)
+                            .dataFetcher({ env -> "fast" } as DataFetcher))
+                    .field(newFieldDefinition()
+                            .name("slow")
+                            .type(GraphQLString)
+                            .dataFetcher({ env ->
+                                env.cancellation.onCancel({ cancelled.set(true) })
+                                new CompletableFuture()
+                            } as DataFetcher))
+                    .field(newFieldDefinition()
+                            .name("blocking")
+                            .type(GraphQLString)
+                            .dataFetcher({ env ->
+                                unblock.await()
+                                "blocking"
+                            } as DataFetcher)))
+            .build()
+
+    def cleanup() {
+        unblock.countDown()
+    }
+
+    @Timeout(5)
+    def 'Requests complete with partial data once their deadline passes.'() {
+        given:
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .timeout(Duration.ofMillis(100))
+                .build()
+
+        when:
+        def result = graphQL.execute("{ fast slow }")
+
+        then:
+        result.data == [fast: 'fast', slow: null]
+        result.errors.size() == 1
+        result.errors[0] instanceof CancellationError
+        result.errors[0].message == "Field 'slow' was cancelled, because the deadline of the request passed"
+        cancelled.get()
+    }
+
+    @Timeout(5)
+    def 'Requests are cancelled on demand.'() {
+        given:
+        def graphQL = GraphQL.newAsyncGraphQL(schema).build()
+        def cancellation = Cancellation.newCancellation()
+        def received = new AtomicReference()
+        def latch = new CountDownLatch(1)
+
+        when:
+        graphQL.execute("{ fast slow }", null, null, [:], cancellation, { result ->
+            received.set(result)
+            latch.countDown()
+        })
+
+        then:
+        !latch.await(50, TimeUnit.MILLISECONDS)
+
+        when:
+        cancellation.cancel()
+        latch.await()
+
+        then:
+        received.get().data == [fast: 'fast', slow: null]
+        received.get().errors*.message == ["Field 'slow' was cancelled, because the request was cancelled"]
+        cancelled.get()
+    }
+
+    @Timeout(5)
+    def 'Deadlines bound requests whose data fetchers block, off the thread that times them.'() {
+        given:
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .timeout(Duration.ofMillis(100))
+                .build()
+        def received = new AtomicReference()
+        def consumerThread = new AtomicReference<String>()
+        def latch = new CountDownLatch(1)
+
+        when:
+        graphQL.execute("{ fast blocking }", { result ->
+            received.set(result)
+            consumerThread.set(Thread.currentThread().name)
+            latch.countDown()
+        } as Consumer)
+
+        then:
+        latch.await(2, TimeUnit.SECONDS)
+        received.get().data == [fast: 'fast', blocking: null]
+        received.get().errors*.message == ["Field 'blocking' was cancelled, because the deadline of the request passed"]
+        consumerThread.get() != 'graphql-deadlines'
+    }
+
+    def 'The deadline timer stops when a request fails before it gets under way.'() {
+        given:
+        def graphQL = GraphQL.newAsyncGraphQL(schema).build()
+        def cancellation = Cancellation.withTimeout(Duration.ofMinutes(1))
+
+        when:
+        def result = graphQL.executeAsync("{ fast }", null, null, null, cancellation)
+
+        then:
+        result.completedExceptionally
+        cancellation.@timer.isCancelled()
+
+        when:
+        result.join()
+
+        then:
+        def e = thrown(CompletionException)
+        e.cause instanceof AssertException
+    }
+}
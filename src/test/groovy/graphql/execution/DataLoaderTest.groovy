@@ -0,0 +1,98 @@
+package graphql.execution
+
+import graphql.async.GraphQL
+import graphql.schema.DataFetcher
+import graphql.schema.GraphQLList
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import graphql.schema.GraphQLTypeReference
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.Unroll
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executors
+
+import static graphql.Scalars.GraphQLInt
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+
+class DataLoaderTest extends Specification {
+
+    def pool = Executors.newFixedThreadPool(4)
+
+    def cleanup() {
+        pool.shutdownNow()
+    }
+
+    GraphQLSchema nodeSchema() {
+        def nodeType = GraphQLObjectType.newObject()
+                .name("node")
+                .field(newFieldDefinition()
+                        .name("id")
+                        .type(GraphQLInt))
+                .field(newFieldDefinition()
+                        .name("next")
+                        .type(new GraphQLTypeReference("node"))
+                        .dataFetcher({ env ->
+                            ((AsyncDataFetchingEnvironment) env).getDataLoader("next").load(env.source.id)
+                        } as DataFetcher))
+                .build()
+        GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("nodes")
+                                .type(new GraphQLList(nodeType))
+                                .dataFetcher({ env ->
+                                    CompletableFuture.supplyAsync({ [[id: 1], [id: 2], [id: 3]] })
+                                } as DataFetcher)))
+                .build()
+    }
+
+    @Unroll
+    @Timeout(10)
+    def 'Keys are loaded in one batch per level with #name strategy.'() {
+        given:
+        def batches = new ConcurrentLinkedQueue<List>()
+        def graphQL = GraphQL.newAsyncGraphQL(nodeSchema())
+                .queryExecutionStrategy(strategy(pool))
+                .batchLoader("next", { keys ->
+                    batches.add(keys)
+                    CompletableFuture.supplyAsync({ keys.collect { [id: it + 10] } })
+                } as BatchLoader)
+                .build()
+
+        when:
+        def result = graphQL.execute("{ nodes { id next { id next { id } } } }")
+
+        then:
+        result.data == [nodes: [
+                [id: 1, next: [id: 11, next: [id: 21]]],
+                [id: 2, next: [id: 12, next: [id: 22]]],
+                [id: 3, next: [id: 13, next: [id: 23]]]
+        ]]
+        batches.collect { it.sort(false) } == [[1, 2, 3], [11, 12, 13]]
+
+        where:
+        name       | strategy
+        'parallel' | { AsyncExecutionStrategy.parallel(it) }
+        'adaptive' | { AsyncExecutionStrategy.adaptive(it) }
+    }
+
+    @Timeout(10)
+    def 'Batch loaders that return null fail their keys.'() {
+        given:
+        def graphQL = GraphQL.newAsyncGraphQL(nodeSchema())
+                .queryExecutionStrategy(AsyncExecutionStrategy.parallel(pool))
+                .batchLoader("next", { keys -> null } as BatchLoader)
+                .build()
+
+        when:
+        def result = graphQL.execute("{ nodes { id next { id } } }")
+
+        then:
+        result.data == [nodes: [[id: 1, next: null], [id: 2, next: null], [id: 3, next: null]]]
+        result.errors.size() == 3
+    }
+}
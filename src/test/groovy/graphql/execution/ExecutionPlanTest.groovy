@@ -0,0 +1,113 @@
+package graphql.execution
+
+import graphql.async.DocumentCache
+import graphql.async.GraphQL
+import graphql.schema.DataFetcher
+import graphql.schema.GraphQLList
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+
+import static graphql.Scalars.GraphQLString
+import static graphql.schema.GraphQLArgument.newArgument
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+
+class ExecutionPlanTest extends Specification {
+
+    def echoType = GraphQLObjectType.newObject()
+            .name("echo")
+            .field(newFieldDefinition()
+                    .name("text")
+                    .type(GraphQLString)
+                    .argument(newArgument()
+                            .name("suffix")
+                            .type(GraphQLString))
+                    .dataFetcher({ env -> env.source + (env.getArgument("suffix") ?: "") } as DataFetcher))
+            .build()
+
+    def schema = GraphQLSchema.newSchema()
+            .query(GraphQLObjectType.newObject()
+                    .name("QueryType")
+                    .field(newFieldDefinition()
+                            .name("echoes")
+                            .type(new GraphQLList(echoType))
+                            .argument(newArgument()
+                                    .name("texts")
+                                    .type(new GraphQLList(GraphQLString)))
+                            .dataFetcher({ env -> env.getArgument("texts") } as DataFetcher)))
+            .build()
+
+    def documentCache = DocumentCache.newDocumentCache().build()
+
+    def graphQL = GraphQL.newAsyncGraphQL(schema)
+            .queryExecutionStrategy(AsyncExecutionStrategy.adaptive())
+            .documentCache(documentCache)
+            .build()
+
+    def 'Cached plans resolve variables per request.'() {
+        given:
+        def query = 'query echo($texts: [String]) { echoes(texts: $texts) { text plain: text(suffix: "!") } }'
+
+        when:
+        def first = graphQL.execute(query, (Object) null, [texts: ["a", "b"]])
+        def second = graphQL.execute(query, (Object) null, [texts: ["c"]])
+
+        then:
+        first.data == [echoes: [[text: "a", plain: "a!"], [text: "b", plain: "b!"]]]
+        second.data == [echoes: [[text: "c", plain: "c!"]]]
+        documentCache.get(query).reusable
+    }
+
+    def 'Plans of selections that depend on variables are not shared.'() {
+        given:
+        def query = 'query echo($loud: Boolean!) { echoes(texts: ["a"]) { text loud: text(suffix: "!") @include(if: $loud) } }'
+
+        when:
+        def quiet = graphQL.execute(query, (Object) null, [loud: false])
+        def loud = graphQL.execute(query, (Object) null, [loud: true])
+
+        then:
+        quiet.data == [echoes: [[text: "a"]]]
+        loud.data == [echoes: [[text: "a", loud: "a!"]]]
+        !documentCache.get(query).reusable
+    }
+
+    def 'Objects of the same selection set share its shape.'() {
+        given:
+        def query = '{ echoes(texts: ["a", "b"]) { text plain: text(suffix: "!") } }'
+
+        when:
+        def first = graphQL.execute(query).data.echoes
+        def second = graphQL.execute(query).data.echoes
+
+        then:
+        first*.getClass() == [ShapedMap, ShapedMap]
+        [first, second].flatten()*.shape.unique { a, b -> a.is(b) ? 0 : 1 }.size() == 1
+        first[0].keySet() as List == ["text", "plain"]
+
+        when:
+        first[0].put("text", "z")
+
+        then:
+        first[0] == [text: "z", plain: "a!"]
+
+        when:
+        first[0].put("other", "z")
+
+        then:
+        first[0] == [text: "z", plain: "a!", other: "z"]
+        first[0].keySet() as List == ["text", "plain", "other"]
+
+        when:
+        first[0].remove("other")
+
+        then:
+        first[0] == [text: "z", plain: "a!"]
+
+        when:
+        first[0].remove("text")
+
+        then:
+        thrown(UnsupportedOperationException)
+    }
+}
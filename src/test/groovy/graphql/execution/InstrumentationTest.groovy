@@ -0,0 +1,121 @@
+package graphql.execution
+
+import graphql.async.GraphQL
+import graphql.schema.DataFetcher
+import graphql.schema.GraphQLFieldDefinition
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Executors
+
+import static graphql.Scalars.GraphQLString
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+
+class InstrumentationTest extends Specification {
+
+    def 'Fields report their queue, fetch and completion times.'() {
+        given:
+        def fields = new ConcurrentLinkedQueue()
+        def instrumentation = new HistogramInstrumentation() {
+            @Override
+            void onField(GraphQLObjectType parentType, GraphQLFieldDefinition fieldDefinition,
+                         long enqueuedNanos, long startedNanos, long fetchedNanos, long endedNanos,
+                         int threadHops, boolean failed) {
+                super.onField(parentType, fieldDefinition, enqueuedNanos, startedNanos, fetchedNanos,
+                        endedNanos, threadHops, failed)
+                fields.add([fieldDefinition.name, enqueuedNanos <= startedNanos,
+                            startedNanos <= fetchedNanos, fetchedNanos <= endedNanos, failed])
+            }
+        }
+        def pool = Executors.newFixedThreadPool(2)
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("slow")
+                                .type(GraphQLString)
+                                .dataFetcher({ env ->
+                                    CompletableFuture.supplyAsync({ Thread.sleep(20); "slow" }, pool)
+                                } as DataFetcher))
+                        .field(newFieldDefinition()
+                                .name("broken")
+                                .type(GraphQLString)
+                                .dataFetcher({ env -> throw new IllegalStateException("broken") } as DataFetcher)))
+                .build()
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .queryExecutionStrategy(AsyncExecutionStrategy.parallel(pool))
+                .instrumentation(instrumentation)
+                .build()
+
+        when:
+        def result = graphQL.executeAsync("{ slow broken }", null, null, [:]).join()
+
+        then:
+        result.data == [slow: 'slow', broken: null]
+        fields as Set == [['slow', true, true, true, false], ['broken', true, true, true, true]] as Set
+        instrumentation.fetchTime.count == 2
+        instrumentation.fetchTime.max >= 20_000_000
+        instrumentation.threadHops.max >= 1
+        instrumentation.fieldErrorCount == 1
+        instrumentation.requestTime.count == 1
+        instrumentation.requestErrorCount == 1
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    def 'Fields that a bulkhead rejects are reported as never started.'() {
+        given:
+        def fields = new ConcurrentLinkedQueue()
+        def instrumentation = new ExecutionInstrumentation() {
+            @Override
+            void onField(GraphQLObjectType parentType, GraphQLFieldDefinition fieldDefinition,
+                         long enqueuedNanos, long startedNanos, long fetchedNanos, long endedNanos,
+                         int threadHops, boolean failed) {
+                fields.add([fieldDefinition.name, enqueuedNanos != 0, startedNanos, fetchedNanos, failed])
+            }
+        }
+        def closedPool = Executors.newSingleThreadExecutor()
+        closedPool.shutdown()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("rejected")
+                                .type(GraphQLString)
+                                .dataFetcher({ env -> "rejected" } as DataFetcher)))
+                .build()
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .bulkhead(Bulkhead.newBulkhead("closed")
+                        .executorService(closedPool)
+                        .field("QueryType", "rejected")
+                        .build())
+                .instrumentation(instrumentation)
+                .build()
+
+        when:
+        def result = graphQL.executeAsync("{ rejected }", null, null, [:]).join()
+
+        then:
+        result.data == [rejected: null]
+        fields as List == [['rejected', true, 0L, 0L, true]]
+    }
+
+    def 'Histograms tell values apart to within an eighth.'() {
+        given:
+        def histogram = new Histogram()
+
+        when:
+        (1..1000).each { histogram.record(it * 1000) }
+
+        then:
+        histogram.count == 1000
+        histogram.max == 1_000_000
+        Math.abs(histogram.getValueAtPercentile(50) - 500_000) <= 500_000 / 8
+        Math.abs(histogram.getValueAtPercentile(99) - 990_000) <= 990_000 / 8
+        histogram.getValueAtPercentile(100) == 1_000_000
+    }
+}
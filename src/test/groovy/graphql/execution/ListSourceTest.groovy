@@ -0,0 +1,130 @@
+package graphql.execution
+
+import graphql.async.GraphQL
+import graphql.schema.DataFetcher
+import graphql.schema.GraphQLList
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLSchema
+import org.reactivestreams.Publisher
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+import static graphql.Scalars.GraphQLInt
+import static graphql.schema.GraphQLFieldDefinition.newFieldDefinition
+
+class ListSourceTest extends Specification {
+
+    def requested = new AtomicLong()
+    def emitted = new AtomicInteger()
+    def maxOutstanding = new AtomicLong()
+
+    /**
+     * Emits the given number of elements, no more than are requested, from within the request, even
+     * if that is itself made from within an element.
+     */
+    Publisher<Integer> range(int count) {
+        { Subscriber subscriber ->
+            subscriber.onSubscribe(new Subscription() {
+                boolean completed
+
+                @Override
+                void request(long n) {
+                    requested.addAndGet(n)
+                    maxOutstanding.accumulateAndGet(requested.get() - emitted.get(), Math.&max)
+                    while (emitted.get() < requested.get() && emitted.get() < count) {
+                        subscriber.onNext(emitted.getAndIncrement())
+                    }
+                    if (emitted.get() == count && !completed) {
+                        completed = true
+                        subscriber.onComplete()
+                    }
+                }
+
+                @Override
+                void cancel() {
+                }
+            })
+        } as Publisher
+    }
+
+    def 'Elements of a publisher are requested as they are done.'() {
+        given:
+        def scheduler = Executors.newSingleThreadScheduledExecutor()
+        GraphQLObjectType itemType = GraphQLObjectType.newObject()
+                .name("item")
+                .field(newFieldDefinition()
+                        .name("value")
+                        .type(GraphQLInt)
+                        .dataFetcher({ env ->
+                            def future = new CompletableFuture()
+                            scheduler.schedule({ future.complete(env.source) } as Runnable, 1, TimeUnit.MILLISECONDS)
+                            future
+                        } as DataFetcher))
+                .build()
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("items")
+                                .type(new GraphQLList(itemType))
+                                .dataFetcher({ env -> range(100) } as DataFetcher))
+                        .field(newFieldDefinition()
+                                .name("numbers")
+                                .type(new GraphQLList(GraphQLInt))
+                                .dataFetcher({ env -> range(100) } as DataFetcher)))
+                .build()
+        def graphQL = GraphQL.newAsyncGraphQL(schema)
+                .queryExecutionStrategy(AsyncExecutionStrategy.parallel().listCompletion(1024, 10, 1))
+                .build()
+
+        when:
+        def result = graphQL.execute(query)
+
+        then:
+        result.errors.isEmpty()
+        result.data == expected
+        maxOutstanding.get() <= 10
+        requested.get() <= 100 + 10
+
+        cleanup:
+        scheduler.shutdownNow()
+
+        where:
+        // Numbers are done as soon as they are emitted, and so more are requested from within the
+        // request that emitted them
+        query                 | expected
+        "{ items { value } }" | [items: (0..<100).collect { [value: it] }]
+        "{ numbers }"         | [numbers: (0..<100).collect { it }]
+    }
+
+    def 'Elements of iterators and streams are completed as they are pulled.'() {
+        given:
+        def schema = GraphQLSchema.newSchema()
+                .query(GraphQLObjectType.newObject()
+                        .name("QueryType")
+                        .field(newFieldDefinition()
+                                .name("iterated")
+                                .type(new GraphQLList(GraphQLInt))
+                                .dataFetcher({ env -> (0..<5).iterator() } as DataFetcher))
+                        .field(newFieldDefinition()
+                                .name("streamed")
+                                .type(new GraphQLList(GraphQLInt))
+                                .dataFetcher({ env -> (0..<5).stream() } as DataFetcher)))
+                .build()
+        def graphQL = GraphQL.newAsyncGraphQL(schema).build()
+
+        when:
+        def result = graphQL.execute("{ iterated streamed }")
+
+        then:
+        result.errors.isEmpty()
+        result.data == [iterated: [0, 1, 2, 3, 4], streamed: [0, 1, 2, 3, 4]]
+    }
+}